@@ -43,6 +43,8 @@ import com.blurengine.blur.modules.stages.StageManager;
 import com.blurengine.blur.modules.teams.TeamManager;
 import com.blurengine.blur.modules.vanillafixes.RevertProjectileVelocity;
 import com.blurengine.blur.session.BlurPlayer;
+import com.blurengine.blur.session.PlayerMoveBlockEmitter;
+import com.blurengine.blur.session.SessionEventRouter;
 import com.blurengine.blur.session.SessionManager;
 import com.supaham.commons.bukkit.CommonPlugin;
 import com.supaham.commons.bukkit.modules.ModuleContainer;
@@ -72,6 +74,8 @@ public class Blur {
     private final ModuleContainer moduleContainer;
     private final SessionManager sessionManager;
     private final BlurPlayerManager playerManager;
+    private final PlayerMoveBlockEmitter moveBlockEmitter;
+    private final SessionEventRouter eventRouter;
     private final PluginLogger logger;
 
     public static boolean isAdmin(Permissible permissible) {
@@ -88,6 +92,8 @@ public class Blur {
         this.sessionManager = new SessionManager(this);
         this.playerManager = new BlurPlayerManager(plugin);
         this.logger = plugin.getLog();
+        this.moveBlockEmitter = new PlayerMoveBlockEmitter(this);
+        this.eventRouter = new SessionEventRouter(this);
     }
 
     static {
@@ -139,6 +145,14 @@ public class Blur {
         return playerManager;
     }
 
+    public PlayerMoveBlockEmitter getMoveBlockEmitter() {
+        return moveBlockEmitter;
+    }
+
+    public SessionEventRouter getEventRouter() {
+        return eventRouter;
+    }
+
 
     public Collection<BlurPlayer> getPlayers() {
         return getPlayersMap().values();
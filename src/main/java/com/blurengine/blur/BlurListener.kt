@@ -17,7 +17,6 @@
 package com.blurengine.blur
 
 import com.blurengine.blur.events.players.PlayerDamagePlayerEvent
-import com.blurengine.blur.events.players.PlayerMoveBlockEvent
 import com.supaham.commons.bukkit.utils.EventUtils
 import org.bukkit.entity.Player
 import org.bukkit.event.EventHandler
@@ -27,7 +26,6 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent
 import org.bukkit.event.inventory.InventoryAction
 import org.bukkit.event.inventory.InventoryClickEvent
 import org.bukkit.event.player.PlayerInteractEvent
-import org.bukkit.event.player.PlayerMoveEvent
 import org.bukkit.inventory.PlayerInventory
 
 /*
@@ -45,18 +43,6 @@ internal class BlurListener(private val plugin: BlurPlugin) : Listener {
         }
     }
 
-    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
-    fun callPlayerMoveBlockEvent(event: PlayerMoveEvent) {
-        val from = event.from
-        val to = event.to
-        if (from.toVector() != to!!.toVector()) {
-            val blurPlayer = plugin.blur.getPlayer(event.player)
-            if (blurPlayer != null && blurPlayer.session != null) {
-                EventUtils.callEvent(PlayerMoveBlockEvent(event, blurPlayer))
-            }
-        }
-    }
-
     @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     fun callPlayerDamagePlayerEvent(event: EntityDamageByEntityEvent) {
         val damager = EventUtils.getLivingEntityDamager(event)
@@ -19,9 +19,11 @@ package com.blurengine.blur.components.shared
 import com.blurengine.blur.framework.SharedComponent
 import com.blurengine.blur.framework.ticking.Tick
 import com.blurengine.blur.session.BlurSession
+import com.blurengine.blur.utils.BlockKeys
+import com.blurengine.blur.utils.LongObjectHashMap
 import com.blurengine.blur.utils.elapsed
-import com.supaham.commons.bukkit.utils.BlockFaceUtils
 import org.bukkit.Location
+import org.bukkit.World
 import org.bukkit.block.Block
 import org.bukkit.block.BlockFace
 import org.bukkit.block.BlockState
@@ -37,12 +39,27 @@ import org.bukkit.event.block.BlockPhysicsEvent
 import org.bukkit.event.block.BlockSpreadEvent
 import java.time.Duration
 import java.time.Instant
-import java.util.Collections
 
+/**
+ * Temporarily changes blocks, restoring them once their expiry has passed. Entries are kept per world, keyed by the packed position of their
+ * block, and scheduled on a timing wheel bucketed by tick, so each tick only visits the entries due then. Physics and other events around changed
+ * blocks are cancelled, with a count of entries per chunk letting events away from any changed block bail out without probing their neighbours.
+ */
 class BlockRestore(session: BlurSession) : SharedComponent(session) {
 
-    private val _blocks = HashMap<Block, BlockRestoreData>()
-    val blocks: Map<Block, BlockRestoreData> = Collections.unmodifiableMap(_blocks)
+    private val worlds = HashMap<World, WorldEntries>()
+    private var size = 0
+    /**
+     * Read-only view of the changed blocks. Lookups are direct, iterating takes a snapshot.
+     */
+    val blocks: Map<Block, BlockRestoreData> = BlocksView()
+
+    /*
+     * Entries bucketed by the tick they are due, modulo the wheel size. Entries due beyond a revolution wait in their bucket for their round, and
+     * entries that were rescheduled or removed are dropped lazily when their old bucket comes up.
+     */
+    private val wheel = Array(WHEEL_SIZE) { ArrayList<BlockRestoreData>() }
+    private var currentTick = 0L
 
     var restoreOnDisable = false
 
@@ -58,50 +75,171 @@ class BlockRestore(session: BlurSession) : SharedComponent(session) {
 
     @Tick
     fun tick() {
-        val it = _blocks.values.iterator()
-        while (it.hasNext()) {
-            val data = it.next()
+        val index = (currentTick and WHEEL_MASK).toInt()
+        val bucket = wheel[index]
+        // Restore listeners may add entries to this bucket, only the ones present beforehand are visited.
+        val size = bucket.size
+        var kept = 0
+        for (i in 0 until size) {
+            val data = bucket[i]
+            if (!isCurrent(data) || (data.dueTick and WHEEL_MASK).toInt() != index) {
+                continue // Removed or rescheduled
+            } else if (data.dueTick > currentTick) {
+                bucket[kept++] = data
+                continue
+            }
             if (data.checkExpiry()) {
-                it.remove()
+                removeEntry(data)
+            } else {
+                // Not quite expired, or waiting on gravity, check again next tick.
+                schedule(data, currentTick + 1)
             }
         }
+        bucket.subList(kept, size).clear()
+        currentTick++
     }
 
     fun restoreAll() {
-        val it = _blocks.values.iterator()
-        while (it.hasNext()) {
-            it.next().restore()
-            it.remove()
-        }
+        val all = ArrayList<BlockRestoreData>(size)
+        worlds.values.forEach { it.blocks.forEach { data, _ -> all.add(data) } }
+        worlds.clear()
+        size = 0
+        wheel.forEach { it.clear() }
+        all.forEach { it.restore() }
     }
 
     fun restore(location: Location) = restore(location.block)
 
     fun restore(block: Block) {
-        _blocks.remove(block)?.restore()
+        val data = find(block) ?: return
+        removeEntry(data)
+        data.restore()
     }
 
     fun add(block: Block, to: BlockData, expiry: Duration): Boolean {
-        if (block in _blocks) {
-            _blocks[block]!!.update(to, expiry)
+        val data = find(block)
+        if (data != null) {
+            data.update(to, expiry)
+            schedule(data, expiry)
         } else {
-            _blocks[block] = BlockRestoreData(block, to, expiry)
+            addEntry(BlockRestoreData(block, to, expiry), expiry)
         }
         return true
     }
 
     fun add(block: Block, to: BlockData, expiry: Duration, listener: BlockRestoreListener? = null): Boolean {
-        if (block in _blocks) {
-            _blocks[block]!!.update(to, expiry, listener)
+        val data = find(block)
+        if (data != null) {
+            data.update(to, expiry, listener)
+            schedule(data, expiry)
         } else {
-            _blocks[block] = BlockRestoreData(block, to, expiry, listener)
+            addEntry(BlockRestoreData(block, to, expiry, listener), expiry)
         }
         return true
     }
 
-    operator fun contains(block: Block) = _blocks.contains(block)
+    operator fun contains(block: Block) = find(block) != null
+
+    operator fun get(block: Block) = find(block)
+
+    private fun find(block: Block) = find(block.x, block.y, block.z, block.world)
+
+    private fun find(x: Int, y: Int, z: Int, world: World) = worlds[world]?.blocks?.get(BlockKeys.of(x, y, z))
+
+    private fun isCurrent(data: BlockRestoreData) = worlds[data.block.world]?.blocks?.get(data.key) === data
+
+    private fun addEntry(data: BlockRestoreData, expiry: Duration) {
+        if (worlds.getOrPut(data.block.world) { WorldEntries() }.add(data)) {
+            size++
+        }
+        schedule(data, expiry)
+    }
+
+    private fun removeEntry(data: BlockRestoreData) {
+        val world = data.block.world
+        val entries = worlds[world] ?: return
+        // Replaced entries are left be, e.g. when a restore listener adds the block again.
+        if (entries.remove(data)) {
+            size--
+            if (entries.blocks.isEmpty) {
+                worlds.remove(world)
+            }
+        }
+    }
+
+    private fun schedule(data: BlockRestoreData, expiry: Duration) {
+        // Rounded up, as checkExpiry has the final say on the exact expiry.
+        val ticks = session.millisecondsToTicks(expiry.toMillis() + session.ticksAsMs - 1)
+        schedule(data, currentTick + Math.max(ticks, 1))
+    }
+
+    private fun schedule(data: BlockRestoreData, dueTick: Long) {
+        data.dueTick = dueTick
+        wheel[(dueTick and WHEEL_MASK).toInt()].add(data)
+    }
+
+    companion object {
+        private const val WHEEL_SIZE = 256
+        private const val WHEEL_MASK = WHEEL_SIZE - 1L
+
+        private fun chunkKey(chunkX: Int, chunkZ: Int) = BlockKeys.of(chunkX, 0, chunkZ)
+    }
 
-    operator fun get(block: Block) = _blocks[block]
+    // Entries of a single world, as block keys don't include the world.
+    private class WorldEntries {
+        val blocks = LongObjectHashMap<BlockRestoreData>()
+        // Number of entries per chunk, keyed by the packed chunk coordinates.
+        private val chunkCounts = LongObjectHashMap<IntArray>()
+
+        fun add(data: BlockRestoreData): Boolean {
+            if (blocks.put(data.key, data) != null) {
+                return false
+            }
+            val chunkKey = chunkKey(data.block.x shr 4, data.block.z shr 4)
+            val count = chunkCounts[chunkKey]
+            if (count != null) count[0]++ else chunkCounts.put(chunkKey, intArrayOf(1))
+            return true
+        }
+
+        fun remove(data: BlockRestoreData): Boolean {
+            if (blocks[data.key] !== data) {
+                return false
+            }
+            blocks.remove(data.key)
+            val chunkKey = chunkKey(data.block.x shr 4, data.block.z shr 4)
+            val count = chunkCounts[chunkKey]!!
+            if (--count[0] == 0) {
+                chunkCounts.remove(chunkKey)
+            }
+            return true
+        }
+
+        // Neighbours of a block lie within its chunk, and the adjacent chunk when on the chunk's edge.
+        fun hasEntriesAround(x: Int, z: Int): Boolean {
+            val chunkX = x shr 4
+            val chunkZ = z shr 4
+            return isOccupied(chunkX, chunkZ)
+                || ((x and 15) == 0 && isOccupied(chunkX - 1, chunkZ)) || ((x and 15) == 15 && isOccupied(chunkX + 1, chunkZ))
+                || ((z and 15) == 0 && isOccupied(chunkX, chunkZ - 1)) || ((z and 15) == 15 && isOccupied(chunkX, chunkZ + 1))
+        }
+
+        private fun isOccupied(chunkX: Int, chunkZ: Int) = chunkCounts.containsKey(chunkKey(chunkX, chunkZ))
+    }
+
+    private inner class BlocksView : AbstractMap<Block, BlockRestoreData>() {
+        override val size: Int get() = this@BlockRestore.size
+
+        override fun containsKey(key: Block) = find(key) != null
+
+        override fun get(key: Block) = find(key)
+
+        override val entries: Set<Map.Entry<Block, BlockRestoreData>>
+            get() {
+                val snapshot = HashMap<Block, BlockRestoreData>(this@BlockRestore.size)
+                worlds.values.forEach { it.blocks.forEach { data, _ -> snapshot[data.block] = data } }
+                return snapshot.entries
+            }
+    }
 
     private inner class BlockListener : Listener {
 
@@ -127,7 +265,7 @@ class BlockRestore(session: BlurSession) : SharedComponent(session) {
 
         @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
         fun onBlockExplode(event: BlockExplodeEvent) {
-            event.blockList().removeIf { shouldCancel(it) }
+            if (size != 0) event.blockList().removeIf { shouldCancel(it) }
         }
 
         @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
@@ -136,10 +274,21 @@ class BlockRestore(session: BlurSession) : SharedComponent(session) {
         }
 
         private fun shouldCancel(block: Block): Boolean {
-            if (_blocks.containsKey(block)) {
-                return true
+            if (size == 0) {
+                return false
             }
-            return BlockFaceUtils.getAdjacents().any { _blocks.containsKey(block.getRelative(it)) }
+            val x = block.x
+            val z = block.z
+            val entries = worlds[block.world]
+            if (entries == null || !entries.hasEntriesAround(x, z)) {
+                return false
+            }
+            val y = block.y
+            val blocks = entries.blocks
+            return blocks.containsKey(BlockKeys.of(x, y, z)) || blocks.containsKey(BlockKeys.of(x + 1, y, z))
+                || blocks.containsKey(BlockKeys.of(x - 1, y, z)) || blocks.containsKey(BlockKeys.of(x, y + 1, z))
+                || blocks.containsKey(BlockKeys.of(x, y - 1, z)) || blocks.containsKey(BlockKeys.of(x, y, z + 1))
+                || blocks.containsKey(BlockKeys.of(x, y, z - 1))
         }
     }
 }
@@ -161,6 +310,10 @@ class BlockRestoreData(val block: Block, to: BlockData, expiry: Duration, listen
 
     val expired: Boolean get() = startedAt.elapsed(expiry)
 
+    internal val key = BlockKeys.of(block)
+    // Tick this entry is due in its BlockRestore, see BlockRestore.schedule.
+    internal var dueTick = 0L
+
     init {
         set()
     }
@@ -32,16 +32,32 @@ import javax.annotation.Nonnull;
 public class PlayerJoinSessionEvent extends BlurPlayerEvent {
 
     private final boolean rejoin;
+    private final boolean batched;
 
     public PlayerJoinSessionEvent(@Nonnull BlurPlayer blurPlayer, @Nonnull BlurSession session, boolean rejoin) {
+        this(blurPlayer, session, rejoin, false);
+    }
+
+    public PlayerJoinSessionEvent(@Nonnull BlurPlayer blurPlayer, @Nonnull BlurSession session, boolean rejoin, boolean batched) {
         super(Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null."), session);
         this.rejoin = rejoin;
+        this.batched = batched;
     }
 
     public boolean isRejoin() {
         return rejoin;
     }
 
+    /**
+     * Returns whether this player joined as part of a batch, in which case a {@link PlayersJoinSessionEvent} has already been fired for the whole
+     * batch.
+     *
+     * @return whether this join is part of a batch
+     */
+    public boolean isBatched() {
+        return batched;
+    }
+
     private static final HandlerList handlerList = new HandlerList();
 
     @Override
@@ -91,7 +91,8 @@ public abstract class AbstractComponent implements Component {
         Preconditions.checkState(setState(ComponentState.LOADED), "Failed to set component state to LOADED");
         this.tasksThatHaveBeenRan.clear();
 
-        this.listeners.forEach(getSession().getBlur().getPlugin()::registerEvents);
+        this.listeners.forEach(this::registerListener);
+        getSession().getBlur().getMoveBlockEmitter().updateRegistration();
         this.tasks.forEach(TickerTask::start);
         this.commands.forEach(getSession().getBlur().getPlugin().getCommandsManager()::registerCommand);
         // TODO Fix further by modifying the TickerTask class to support pauses, etc. 
@@ -112,7 +113,8 @@ public abstract class AbstractComponent implements Component {
         getLogger().finer("Unloading %s component", getClass().getSimpleName());
         Preconditions.checkState(setState(ComponentState.UNLOADED), "Failed to set component state to UNLOADED");
 
-        this.listeners.forEach(getSession().getBlur().getPlugin()::unregisterEvents);
+        this.listeners.forEach(getSession().getBlur().getEventRouter()::unregister);
+        getSession().getBlur().getMoveBlockEmitter().updateRegistration();
         this.tasks.forEach(TickerTask::stop);
         this.tasksThatHaveBeenRan.clear();
         this.commands.forEach(getSession().getBlur().getPlugin().getCommandsManager()::unregisterCommand);
@@ -190,7 +192,8 @@ public abstract class AbstractComponent implements Component {
         Preconditions.checkNotNull(listener, "listener cannot be null.");
         if (this.listeners.add(listener)) {
             if (this.state != ComponentState.UNLOADED) {
-                getSession().getBlur().getPlugin().registerEvents(listener);
+                registerListener(listener);
+                getSession().getBlur().getMoveBlockEmitter().updateRegistration();
             }
             return true;
         }
@@ -202,13 +205,18 @@ public abstract class AbstractComponent implements Component {
         Preconditions.checkNotNull(listener, "listener cannot be null.");
         if (this.listeners.remove(listener)) {
             if (this.state != ComponentState.UNLOADED) {
-                getSession().getBlur().getPlugin().unregisterEvents(listener);
+                getSession().getBlur().getEventRouter().unregister(listener);
+                getSession().getBlur().getMoveBlockEmitter().updateRegistration();
             }
             return true;
         }
         return false;
     }
 
+    private void registerListener(Listener listener) {
+        getSession().getBlur().getEventRouter().register(listener, getSession());
+    }
+
     @Nonnull
     @Override
     public Collection<Object> getTickables() {
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.framework;
+
+import com.google.common.base.Preconditions;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Caches the {@link EventHandler} methods of {@link Listener} classes. Bukkit's {@code registerEvents} scans a listener's methods every time it is
+ * registered and dispatches through {@link Method#invoke}. Components are registered every time a session loads, so instead each listener class is
+ * scanned once, and each handler is bound to a generated {@link EventExecutor} that calls the method directly.
+ */
+public final class HandlerMethodsCache {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, List<HandlerMethod>> CLASS_HANDLER_METHODS = new ConcurrentHashMap<>();
+
+    private HandlerMethodsCache() {}
+
+    /**
+     * Loads and caches a {@link Listener} class.
+     *
+     * @param clazz class to load and cache for future usage
+     *
+     * @return immutable list of {@link HandlerMethod} representing the class' event handlers
+     */
+    public static List<HandlerMethod> loadClass(@Nonnull Class<? extends Listener> clazz) {
+        Preconditions.checkNotNull(clazz, "clazz cannot be null.");
+        return CLASS_HANDLER_METHODS.computeIfAbsent(clazz, HandlerMethodsCache::findHandlerMethods);
+    }
+
+    private static List<HandlerMethod> findHandlerMethods(Class<?> clazz) {
+        // Same lookup as Bukkit: public methods, including inherited ones, and all of the class' own methods.
+        Set<Method> methods = new HashSet<>(Arrays.asList(clazz.getMethods()));
+        methods.addAll(Arrays.asList(clazz.getDeclaredMethods()));
+
+        List<HandlerMethod> handlerMethods = new ArrayList<>();
+        for (Method method : methods) {
+            EventHandler eventHandler = method.getAnnotation(EventHandler.class);
+            if (eventHandler == null || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            try {
+                Preconditions.checkArgument(method.getParameterCount() == 1 && Event.class.isAssignableFrom(method.getParameterTypes()[0]),
+                    "Invalid event handler %s in %s.", method.getName(), clazz.getName());
+                Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+                handlerMethods.add(new HandlerMethod(eventClass, eventHandler.priority(), eventHandler.ignoreCancelled(), createInvoker(method)));
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+        return Collections.unmodifiableList(handlerMethods);
+    }
+
+    /**
+     * Creates a (listener, event) invoker for a handler method. Where possible a lambda is generated so that the call is a plain virtual call,
+     * otherwise, e.g. for private listener classes or classes from other plugins, a {@link MethodHandle} is used.
+     */
+    private static Invoker createInvoker(Method method) throws Throwable {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (isAccessible(method)) {
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "invoke", MethodType.methodType(Invoker.class),
+                MethodType.methodType(void.class, Object.class, Object.class), LOOKUP.unreflect(method),
+                MethodType.methodType(void.class, declaringClass, method.getParameterTypes()[0]));
+            return (Invoker) callSite.getTarget().invokeExact();
+        }
+
+        method.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (listener, event) -> {
+            handle.invokeExact(listener, event);
+        };
+    }
+
+    /**
+     * Returns whether a generated class in this package can link against the method. This requires the method and all of its enclosing classes
+     * to be public, and its class to be visible to Blur's class loader.
+     */
+    private static boolean isAccessible(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+            return false;
+        }
+        for (Class<?> clazz = method.getDeclaringClass(); clazz != null; clazz = clazz.getEnclosingClass()) {
+            if (!Modifier.isPublic(clazz.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(method.getDeclaringClass().getName(), false, HandlerMethodsCache.class.getClassLoader())
+                == method.getDeclaringClass();
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    interface Invoker {
+
+        void invoke(Object listener, Object event) throws Throwable;
+    }
+
+    public static final class HandlerMethod {
+
+        private final Class<? extends Event> eventClass;
+        private final EventPriority priority;
+        private final boolean ignoreCancelled;
+        private final EventExecutor executor;
+
+        private HandlerMethod(Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled,
+                              Invoker invoker) {
+            this.eventClass = eventClass;
+            this.priority = priority;
+            this.ignoreCancelled = ignoreCancelled;
+            this.executor = (listener, event) -> {
+                // Handler lists are shared with subclasses of the event class that don't declare their own.
+                if (!eventClass.isInstance(event)) {
+                    return;
+                }
+                try {
+                    invoker.invoke(listener, event);
+                } catch (Throwable t) {
+                    throw new EventException(t);
+                }
+            };
+        }
+
+        public Class<? extends Event> getEventClass() {
+            return eventClass;
+        }
+
+        public EventPriority getPriority() {
+            return priority;
+        }
+
+        public boolean isIgnoreCancelled() {
+            return ignoreCancelled;
+        }
+
+        /**
+         * Returns the {@link EventExecutor} of this handler method. The executor is shared by all instances of the listener class.
+         *
+         * @return event executor
+         */
+        public EventExecutor getExecutor() {
+            return executor;
+        }
+    }
+}
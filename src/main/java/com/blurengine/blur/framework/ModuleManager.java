@@ -24,6 +24,7 @@ import com.google.common.collect.Multimaps;
 
 import com.blurengine.blur.framework.ticking.TickFieldHolder;
 import com.blurengine.blur.modules.extents.ExtentManager;
+import com.blurengine.blur.modules.extents.ExtentMembershipTracker;
 import com.blurengine.blur.modules.filters.FilterManager;
 import com.blurengine.blur.modules.message.MessagesManager;
 import com.blurengine.blur.modules.stages.StageManager;
@@ -62,6 +63,7 @@ public class ModuleManager {
     private BlurCoreModule coreModule;
     private FilterManager filterManager;
     private ExtentManager extentManager;
+    private ExtentMembershipTracker extentMembershipTracker;
     private TeamManager teamManager;
     private StageManager stageManager;
     private MessagesManager messagesManager;
@@ -115,6 +117,7 @@ public class ModuleManager {
         addModule(coreModule = new BlurCoreModule(this));
         addModule(filterManager = new FilterManager(this));
         addModule(extentManager = new ExtentManager(this));
+        addModule(extentMembershipTracker = new ExtentMembershipTracker(this));
         addModule(teamManager = new TeamManager(this));
         addModule(stageManager = new StageManager(this));
         addModule(messagesManager = new MessagesManager(this));
@@ -325,6 +328,10 @@ public class ModuleManager {
         return extentManager;
     }
 
+    public ExtentMembershipTracker getExtentMembershipTracker() {
+        return extentMembershipTracker;
+    }
+
     public TeamManager getTeamManager() {
         return teamManager;
     }
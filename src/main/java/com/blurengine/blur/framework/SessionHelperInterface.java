@@ -21,6 +21,7 @@ import com.google.common.base.Preconditions;
 import com.blurengine.blur.events.session.BlurSessionEvent;
 import com.blurengine.blur.framework.ticking.TickFieldHolder;
 import com.blurengine.blur.modules.extents.ExtentManager;
+import com.blurengine.blur.modules.extents.ExtentMembershipTracker;
 import com.blurengine.blur.modules.filters.FilterManager;
 import com.blurengine.blur.modules.stages.StageManager;
 import com.blurengine.blur.modules.teams.TeamManager;
@@ -134,6 +135,10 @@ public interface SessionHelperInterface {
         return getModuleManager().getExtentManager();
     }
 
+    default ExtentMembershipTracker getExtentMembershipTracker() {
+        return getModuleManager().getExtentMembershipTracker();
+    }
+
     default TeamManager getTeamManager() {
         return getModuleManager().getTeamManager();
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.framework;
+
+import com.blurengine.blur.events.session.BlurSessionEvent;
+import com.blurengine.blur.session.SessionEventRouter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specifies that a listener only handles events of the session its {@link Component} belongs to. Such listeners are registered through the
+ * {@link SessionEventRouter} which only delivers {@link BlurSessionEvent}s of that session and, for world sessions, world-bound Bukkit events
+ * (block, entity, player, etc.) that happen in the session's world. Events that can't be attributed to a session or world are always delivered.
+ * <p />
+ * This saves every session from receiving, and rejecting, the events of every other session. Listeners that watch other sessions, e.g. a lobby
+ * watching its children, or players outside of the session, e.g. {@code PlayerJoinEvent}, must not be annotated.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface SessionScoped {
+}
@@ -23,6 +23,10 @@ import com.blurengine.blur.session.BlurPlayer;
 import com.blurengine.blur.session.BlurSession;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 
@@ -34,6 +38,34 @@ public class PlayerAutoMetadataCreator extends AbstractAutoMetadataCreator<BlurP
         this.ownerComponent = ownerComponent;
     }
 
+    /**
+     * Returns Player Data instances for the given {@link BlurPlayer}. {@link SessionPortable} instances the player carried over from their previous
+     * session are reused instead of being instantiated again.
+     */
+    @Override
+    public List<Object> initialize(@Nonnull BlurPlayer blurPlayer) {
+        List<Object> instances = new ArrayList<>(getClasses().size() + getCreators().size());
+        for (Class<?> clazz : getClasses()) {
+            instances.add(reuseOrCreate(clazz, blurPlayer, () -> instantiateClass(clazz, blurPlayer)));
+        }
+        // Supplier data instances
+        for (Entry<Class<Object>, MetadataCreator<Object, BlurPlayer>> entry : getCreators().entrySet()) {
+            instances.add(reuseOrCreate(entry.getKey(), blurPlayer, () -> entry.getValue().create(blurPlayer)));
+        }
+        return instances;
+    }
+
+    private Object reuseOrCreate(Class<?> clazz, BlurPlayer blurPlayer, Supplier<Object> creator) {
+        if (SessionPortable.class.isAssignableFrom(clazz)) {
+            SessionPortable reused = (SessionPortable) blurPlayer.takePortableData(clazz);
+            if (reused != null) {
+                reused.reuse(this.ownerComponent.getSession());
+                return reused;
+            }
+        }
+        return creator.get();
+    }
+
     @Nonnull
     @Override
     protected Object instantiateClass(@Nonnull Class<?> clazz, @Nonnull BlurPlayer blurPlayer) {
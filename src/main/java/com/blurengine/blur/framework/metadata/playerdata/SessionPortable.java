@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.framework.metadata.playerdata;
+
+import com.blurengine.blur.session.BlurPlayer;
+import com.blurengine.blur.session.BlurSession;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Marks a Player Data class whose instances may outlive the {@link BlurSession} they were created for. When a {@link BlurPlayer} leaves a session
+ * for another one (e.g. game back to lobby), portable instances are kept by the player and handed to the next session that registers the same
+ * class, instead of being instantiated again. See {@link PlayerAutoMetadataCreator}.
+ * <p />
+ * Portable instances must not hold references to the component or session that created them.
+ */
+public interface SessionPortable {
+
+    /**
+     * Called when this instance is about to be registered into another {@link BlurSession}. Any state that only makes sense within a single
+     * session should be reset here.
+     *
+     * @param session session this instance is being reused in
+     */
+    default void reuse(@Nonnull BlurSession session) {}
+}
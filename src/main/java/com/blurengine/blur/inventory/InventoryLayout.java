@@ -122,6 +122,19 @@ public class InventoryLayout {
         return returnFirst ? first : -1;
     }
 
+    /**
+     * Resets every slot of this layout to {@link SlotType#EMPTY}, allowing this layout to be reused for the same {@link Inventory}.
+     */
+    public void clear() {
+        for (int i = 0; i < slotsByType.length; i++) {
+            setSlot(i, SlotType.EMPTY);
+        }
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
     public SlotType getTypeBySlot(int slot) {
         return slotsByType[validateSlot(slot)];
     }
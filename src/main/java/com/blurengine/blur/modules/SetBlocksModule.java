@@ -16,6 +16,8 @@
 
 package com.blurengine.blur.modules;
 
+import com.google.common.base.Preconditions;
+
 import com.blurengine.blur.modules.extents.Extent;
 import com.blurengine.blur.framework.Module;
 import com.blurengine.blur.framework.ModuleInfo;
@@ -25,21 +27,63 @@ import com.blurengine.blur.framework.SerializedModule;
 import com.blurengine.blur.framework.WorldModule;
 import com.blurengine.blur.modules.SetBlocksModule.SetBlocksData;
 import com.blurengine.blur.framework.ModuleData;
+import com.blurengine.blur.session.BlurSession;
+import com.blurengine.blur.utils.BlockKeys;
+import com.blurengine.blur.utils.LongHashSet;
+import com.supaham.commons.bukkit.TickerTask;
 
-import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.data.BlockData;
-import org.bukkit.material.MaterialData;
-import org.bukkit.util.BlockVector;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.annotation.Nonnull;
+
+import pluginbase.config.annotation.Name;
+
+/**
+ * Represents a {@link Module} that fills extents with a block. Blocks are set in chunk section order, at most {@code blocks-per-tick} blocks per
+ * tick, so large fills are spread across ticks rather than freezing the server. See {@link #whenComplete(BlurSession, Runnable)} to wait for fills
+ * before starting a session.
+ */
 @ModuleInfo(name = "BSetBlocks", dataClass = SetBlocksData.class)
 public class SetBlocksModule extends WorldModule {
 
     private final SetBlocksData data;
+    private final List<Runnable> completionTasks = new ArrayList<>();
+    // Keys of the blocks of the fill in progress, ordered by chunk section, null if there is none.
+    private long[] blocks;
+    private int blockCount;
+    // Keys of every block of the fill in progress, to tell interior blocks apart, null if physics are off.
+    private LongHashSet filled;
+    private int cursor;
+    private TickerTask fillTask;
+
+    /**
+     * Runs a task once every {@link SetBlocksModule} of a session has completed its fill, or immediately if none are in progress. Fills that are
+     * delayed and haven't started yet aren't waited for.
+     *
+     * @param session session to wait for
+     * @param runnable task to run
+     */
+    public static void whenComplete(@Nonnull BlurSession session, @Nonnull Runnable runnable) {
+        Preconditions.checkNotNull(session, "session cannot be null.");
+        Preconditions.checkNotNull(runnable, "runnable cannot be null.");
+        List<SetBlocksModule> modules = session.getModule(SetBlocksModule.class);
+        int[] remaining = {modules.size() + 1};
+        Runnable countDown = () -> {
+            if (--remaining[0] == 0) {
+                runnable.run();
+            }
+        };
+        modules.forEach(module -> module.whenComplete(countDown));
+        countDown.run();
+    }
 
     public SetBlocksModule(ModuleManager moduleManager, SetBlocksData data) {
         super(moduleManager);
@@ -48,13 +92,7 @@ public class SetBlocksModule extends WorldModule {
 
     @Override
     public void enable() {
-        Runnable runnable = () -> {
-            for (Extent extent : data.extents) {
-                for (BlockVector bv : extent) {
-                    bv.toLocation(getSession().getWorld()).getBlock().setBlockData(data.blockData, data.physics);
-                }
-            }
-        };
+        Runnable runnable = this::startFill;
         // If a delay or interval has been set, create a future task
         if (data.delay != null || data.interval != null) {
             newTask().run(runnable).delay(data.delay).interval(data.interval).build();
@@ -63,6 +101,101 @@ public class SetBlocksModule extends WorldModule {
         }
     }
 
+    @Override
+    public void disable() {
+        super.disable();
+        stopFill();
+        this.completionTasks.clear();
+    }
+
+    /**
+     * Returns whether there is no fill in progress.
+     *
+     * @return whether the fill is complete
+     */
+    public boolean isComplete() {
+        return this.blocks == null;
+    }
+
+    /**
+     * Runs a task once the fill in progress completes, or immediately if there is none.
+     *
+     * @param runnable task to run
+     */
+    public void whenComplete(@Nonnull Runnable runnable) {
+        Preconditions.checkNotNull(runnable, "runnable cannot be null.");
+        if (isComplete()) {
+            runnable.run();
+        } else {
+            this.completionTasks.add(runnable);
+        }
+    }
+
+    private void startFill() {
+        // A fill still in progress, e.g. due to a short interval, is restarted.
+        stopFill();
+        this.blocks = new long[256];
+        this.blockCount = 0;
+        this.cursor = 0;
+        for (Extent extent : data.extents) {
+            extent.forEachBlockBySection((x, y, z) -> {
+                if (this.blockCount == this.blocks.length) {
+                    this.blocks = Arrays.copyOf(this.blocks, this.blockCount * 2);
+                }
+                this.blocks[this.blockCount++] = BlockKeys.of(x, y, z);
+            }, null);
+        }
+        if (data.physics) {
+            this.filled = new LongHashSet(this.blockCount);
+            for (int i = 0; i < this.blockCount; i++) {
+                this.filled.add(this.blocks[i]);
+            }
+        }
+        // Start right away so that fills within budget complete immediately.
+        fillNext();
+        if (!isComplete()) {
+            this.fillTask = newTask().run(this::fillNext).interval(50).build();
+        }
+    }
+
+    private void fillNext() {
+        World world = getSession().getWorld();
+        int end = data.blocksPerTick > 0 ? Math.min(this.blockCount, this.cursor + data.blocksPerTick) : this.blockCount;
+        Chunk chunk = null;
+        for (; this.cursor < end; this.cursor++) {
+            long key = this.blocks[this.cursor];
+            int x = BlockKeys.getX(key), y = BlockKeys.getY(key), z = BlockKeys.getZ(key);
+            // Blocks are ordered by section, so the chunk only needs to be looked up when moving on to the next chunk.
+            if (chunk == null || chunk.getX() != x >> 4 || chunk.getZ() != z >> 4) {
+                chunk = world.getChunkAt(x >> 4, z >> 4);
+            }
+            chunk.getBlock(x & 15, y, z & 15).setBlockData(data.blockData, data.physics && !isInterior(x, y, z));
+        }
+        if (this.cursor == this.blockCount) {
+            stopFill();
+            List<Runnable> tasks = new ArrayList<>(this.completionTasks);
+            this.completionTasks.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+
+    private void stopFill() {
+        if (this.fillTask != null) {
+            removeTask(this.fillTask);
+            this.fillTask = null;
+        }
+        this.blocks = null;
+        this.filled = null;
+    }
+
+    // Physics of blocks surrounded by the fill on every side can't affect anything outside of it, so they are skipped.
+    private boolean isInterior(int x, int y, int z) {
+        LongHashSet filled = this.filled;
+        return filled.contains(BlockKeys.of(x + 1, y, z)) && filled.contains(BlockKeys.of(x - 1, y, z))
+            && filled.contains(BlockKeys.of(x, y + 1, z)) && filled.contains(BlockKeys.of(x, y - 1, z))
+            && filled.contains(BlockKeys.of(x, y, z + 1)) && filled.contains(BlockKeys.of(x, y, z - 1));
+    }
+
     public static final class SetBlocksData implements ModuleData {
 
         private List<Extent> extents = new ArrayList<>();
@@ -70,12 +203,18 @@ public class SetBlocksModule extends WorldModule {
         private Duration delay;
         private Duration interval;
         private boolean physics = true;
+        /**
+         * Maximum amount of blocks to set per tick, 0 for no limit.
+         */
+        @Name("blocks-per-tick")
+        private int blocksPerTick = 8192;
 
         @Override
         public Module parse(ModuleManager moduleManager, SerializedModule serialized) throws ModuleParseException {
             serialized.load(this);
             check(!extents.isEmpty(), "No extents defined.");
             checkNotNull(blockData, "No extents defined.");
+            check(blocksPerTick >= 0, "blocks-per-tick cannot be negative.");
             return new SetBlocksModule(moduleManager, this);
         }
     }
@@ -21,6 +21,7 @@ import com.blurengine.blur.framework.ModuleData
 import com.blurengine.blur.framework.ModuleInfo
 import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.SerializedModule
+import com.blurengine.blur.framework.SessionScoped
 import com.blurengine.blur.framework.WorldModule
 import com.blurengine.blur.modules.WorldProtectModule.WorldProtectData
 import org.bukkit.GameMode
@@ -73,6 +74,7 @@ import org.bukkit.inventory.ItemStack
 import pluginbase.config.annotation.Name
 
 @ModuleInfo(name = "WorldProtect", dataClass = WorldProtectData::class)
+@SessionScoped
 class WorldProtectModule(moduleManager: ModuleManager, val data: WorldProtectData) : WorldModule(moduleManager) {
     private fun Event.test(bool: Boolean): Boolean {
         val world = when (this) {
@@ -16,14 +16,15 @@
 
 package com.blurengine.blur.modules.checkpoints
 
-import com.blurengine.blur.events.players.PlayerMoveBlockEvent
 import com.blurengine.blur.framework.Module
 import com.blurengine.blur.framework.ModuleData
 import com.blurengine.blur.framework.ModuleInfo
 import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.SerializedModule
+import com.blurengine.blur.framework.SessionScoped
 import com.blurengine.blur.modules.checkpoints.CheckpointsModule.CheckpointsData
 import com.blurengine.blur.modules.extents.Extent
+import com.blurengine.blur.modules.extents.PlayerEnterExtentEvent
 import com.blurengine.blur.modules.extents.serializer.ExtentSerializer
 import com.blurengine.blur.modules.goal.GoalWinnersStageChangeData
 import com.blurengine.blur.modules.stages.StageChangeData
@@ -35,23 +36,32 @@ import pluginbase.config.annotation.SerializeWith
 import java.util.HashMap
 
 @ModuleInfo(name = "BCheckpoints", dataClass = CheckpointsData::class)
+@SessionScoped
 class CheckpointsModule(manager: ModuleManager, val data: CheckpointsData) : Module(manager) {
     private val playerCheckpoint = HashMap<BlurPlayer, Int>()
 
+    override fun enable() {
+        data.points.forEach { extentMembershipTracker.track(it) }
+    }
+
+    override fun disable() {
+        data.points.forEach { extentMembershipTracker.untrack(it) }
+    }
+
     @EventHandler
-    fun onPlayerMove(event: PlayerMoveBlockEvent) {
+    fun onPlayerEnterExtent(event: PlayerEnterExtentEvent) {
+        if (!isSession(event)) return
         val bp = event.blurPlayer
         var current = this.playerCheckpoint.getOrDefault(bp, 0)
 
 
         // Precaution in case this method gets fired before this listener unregisters.
-        if (current < this.data.points.size) {
-            val checkpoint = this.data.points[current]
-            if (checkpoint.contains(bp)) {
-                current++
-                this.playerCheckpoint.put(bp, current)
-                bp.message("${ChatColor.GREEN}Checkpoint reached, ${this.data.points.size - current} left")
-            }
+        if (current < this.data.points.size && this.data.points[current] !== event.extent) return
+        // Overlapping checkpoints are reached together.
+        while (current < this.data.points.size && extentMembershipTracker.isInside(bp, this.data.points[current])) {
+            current++
+            this.playerCheckpoint.put(bp, current)
+            bp.message("${ChatColor.GREEN}Checkpoint reached, ${this.data.points.size - current} left")
         }
 
 
@@ -17,12 +17,12 @@
 package com.blurengine.blur.modules.controlpoints
 
 import com.blurengine.blur.Blur
-import com.blurengine.blur.events.players.PlayerMoveBlockEvent
 import com.blurengine.blur.framework.Module
 import com.blurengine.blur.framework.ModuleData
 import com.blurengine.blur.framework.ModuleInfo
 import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.SerializedModule
+import com.blurengine.blur.framework.SessionScoped
 import com.blurengine.blur.framework.WorldModule
 import com.blurengine.blur.framework.ticking.Tick
 import com.blurengine.blur.modules.controlpoints.ControlPointsModule.ControlPointEntry
@@ -30,6 +30,8 @@ import com.blurengine.blur.modules.controlpoints.ControlPointsModule.ControlPoin
 import com.blurengine.blur.modules.extents.AutoCircleExtent.MutableAutoCircleExtent
 import com.blurengine.blur.modules.extents.CylinderExtent
 import com.blurengine.blur.modules.extents.Extent
+import com.blurengine.blur.modules.extents.PlayerEnterExtentEvent
+import com.blurengine.blur.modules.extents.PlayerExitExtentEvent
 import com.blurengine.blur.modules.filters.Filter
 import com.blurengine.blur.modules.filters.Filters
 import com.blurengine.blur.modules.teams.BlurTeam
@@ -38,6 +40,7 @@ import com.blurengine.blur.utils.allMaxBy
 import com.supaham.commons.relatives.RelativeDuration
 import com.supaham.commons.relatives.RelativeNumber
 import org.bukkit.ChatColor
+import org.bukkit.Location
 import org.bukkit.Particle
 import org.bukkit.event.EventHandler
 import org.bukkit.event.EventPriority
@@ -52,6 +55,7 @@ import java.util.HashSet
 import java.util.Optional
 
 @ModuleInfo(name = "BControlPoints", dataClass = ControlPointsData::class)
+@SessionScoped
 class ControlPointsModule(manager: ModuleManager, val data: ControlPointsData) : WorldModule(manager) {
 
     private var controlPoints = ArrayList<ControlPoint>()
@@ -63,25 +67,41 @@ class ControlPointsModule(manager: ModuleManager, val data: ControlPointsData) :
         }
     }
 
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-    fun onPlayerMoveBlock(event: PlayerMoveBlockEvent) {
+    override fun enable() {
+        controlPoints.forEach { extentMembershipTracker.track(it.captureExtent) }
+    }
+
+    override fun disable() {
+        controlPoints.forEach { extentMembershipTracker.untrack(it.captureExtent) }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    fun onPlayerEnterExtent(event: PlayerEnterExtentEvent) {
+        if (!isSession(event) || event.blurPlayer in playerControlPoints) return
+        controlPoints.find { it.captureExtent === event.extent }?.let { enterControlPoint(event.blurPlayer, it) }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    fun onPlayerExitExtent(event: PlayerExitExtentEvent) {
+        if (!isSession(event)) return
         val controlPoint = playerControlPoints[event.blurPlayer]
-        if (controlPoint != null) {
-            // Player is still inside the capture point, terminate code
-            if (controlPoint.captureExtent.contains(event.blurPlayer.player.location)) return
-
-            // Player is no longer in their previous control point, remove them from the cache.
-            controlPoint.removePlayer(event.blurPlayer)
-            playerControlPoints.remove(event.blurPlayer)
-            this.session.callEvent(ControlPointExitEvent(event.blurPlayer, controlPoint))
-        }
+        // Player is still inside their cached control point, terminate code
+        if (controlPoint == null || controlPoint.captureExtent !== event.extent) return
 
-        // If the player is in a control point, cache it.
-        getControlPoint(event.to.toVector()).ifPresent {
-            it.addPlayer(event.blurPlayer)
-            playerControlPoints.put(event.blurPlayer, it)
-            this.session.callEvent(ControlPointEnterEvent(event.blurPlayer, it))
-        }
+        // Player is no longer in their previous control point, remove them from the cache.
+        controlPoint.removePlayer(event.blurPlayer)
+        playerControlPoints.remove(event.blurPlayer)
+        this.session.callEvent(ControlPointExitEvent(event.blurPlayer, controlPoint))
+
+        // If the player is still in an overlapping control point, cache it.
+        controlPoints.find { extentMembershipTracker.isInside(event.blurPlayer, it.captureExtent) }
+            ?.let { enterControlPoint(event.blurPlayer, it) }
+    }
+
+    private fun enterControlPoint(blurPlayer: BlurPlayer, controlPoint: ControlPoint) {
+        controlPoint.addPlayer(blurPlayer)
+        playerControlPoints.put(blurPlayer, controlPoint)
+        this.session.callEvent(ControlPointEnterEvent(blurPlayer, controlPoint))
     }
 
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
@@ -110,6 +130,10 @@ class ControlPointsModule(manager: ModuleManager, val data: ControlPointsData) :
         return Optional.ofNullable(controlPoints.find { it.captureExtent.contains(vector) })
     }
 
+    fun getControlPoint(location: Location): Optional<ControlPoint> {
+        return Optional.ofNullable(controlPoints.find { it.captureExtent.contains(location) })
+    }
+
     fun getPlayerControlPoint(blurPlayer: BlurPlayer): Optional<ControlPoint> {
         return Optional.ofNullable(playerControlPoints[blurPlayer])
     }
@@ -19,16 +19,20 @@ package com.blurengine.blur.modules.extents;
 import com.google.common.base.Preconditions;
 
 import com.blurengine.blur.modules.extents.ExtentDirection.NullExtentDirection;
+import com.blurengine.blur.utils.BlockKeys;
+import com.blurengine.blur.utils.IntTriConsumer;
+import com.blurengine.blur.utils.LongHashSet;
 import com.supaham.commons.bukkit.utils.ImmutableVector;
-import com.supaham.commons.bukkit.utils.VectorUtils;
 
 import org.bukkit.util.BlockVector;
+import org.bukkit.util.NumberConversions;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PrimitiveIterator;
 import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -48,8 +52,9 @@ public class AutoCircleExtent implements Extent, DirectionalExtent {
     protected ExtentDirection direction = NullExtentDirection.INSTANCE;
 
     protected List<Vector> pointsList;
+    protected LongHashSet blocks;
+    protected ExtentBounds bounds;
     protected int lastPoint;
-    protected List<BlockVector> bvCache;
 
     public AutoCircleExtent(@Nonnull Vector base, int points, double radius, double offsetRadians) {
         this(base, points, radius, offsetRadians, null);
@@ -62,9 +67,10 @@ public class AutoCircleExtent implements Extent, DirectionalExtent {
         Preconditions.checkArgument(radius > 0, "radius must be greater than 0.");
 
         this.base = base;
+        this.points = points;
         this.radius = radius;
         this.offsetRadians = offsetRadians;
-        this.pointsList = generatePoints();
+        setPointsList(generatePoints());
         if (direction != null) {
             this.direction = direction;
         }
@@ -72,19 +78,25 @@ public class AutoCircleExtent implements Extent, DirectionalExtent {
 
     @Override
     public boolean contains(double x, double y, double z) {
-        Vector test = new Vector(x, y, z);
-        return pointsList.stream().filter(v -> VectorUtils.isSameBlock(test, v)).count() > 0;
+        return bounds.contains(x, y, z) && blocks.contains(BlockKeys.of(NumberConversions.floor(x), NumberConversions.floor(y),
+            NumberConversions.floor(z)));
     }
 
     @Override
     public double getVolume() {
-        return pointsList.size();
+        return blocks.size();
+    }
+
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds;
     }
 
     @Override
     public MutableExtent mutable() throws UnsupportedOperationException {
         MutableAutoCircleExtent mutable = new MutableAutoCircleExtent(this.base, this.radius, this.points, this.offsetRadians);
-        mutable.pointsList = this.pointsList;
+        mutable.setPointsList(this.pointsList);
         return mutable;
     }
 
@@ -105,10 +117,25 @@ public class AutoCircleExtent implements Extent, DirectionalExtent {
 
     @Override
     public Iterator<BlockVector> iterator() {
-        if (this.bvCache == null) {
-            this.bvCache = Collections.unmodifiableList(this.pointsList.stream().map(Vector::toBlockVector).collect(Collectors.toList()));
-        }
-        return this.bvCache.iterator();
+        PrimitiveIterator.OfLong it = this.blocks.iterator();
+        return new Iterator<BlockVector>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public BlockVector next() {
+                long key = it.nextLong();
+                return new BlockVector(BlockKeys.getX(key), BlockKeys.getY(key), BlockKeys.getZ(key));
+            }
+        };
+    }
+
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        this.blocks.forEach(key -> action.accept(BlockKeys.getX(key), BlockKeys.getY(key), BlockKeys.getZ(key)));
     }
 
     @Override
@@ -142,6 +169,28 @@ public class AutoCircleExtent implements Extent, DirectionalExtent {
         return offsetRadians;
     }
 
+    /**
+     * Sets the points of this extent, materializing the blocks they cover and their bounds.
+     */
+    protected void setPointsList(List<Vector> pointsList) {
+        LongHashSet blocks = new LongHashSet(pointsList.size());
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (Vector point : pointsList) {
+            int x = point.getBlockX(), y = point.getBlockY(), z = point.getBlockZ();
+            blocks.add(BlockKeys.of(x, y, z));
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        this.pointsList = pointsList;
+        this.blocks = blocks;
+        this.bounds = blocks.isEmpty() ? ExtentBounds.EMPTY : ExtentBounds.ofBlocks(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
     protected List<Vector> generatePoints() {
         double x = base.getX();
         double z = base.getZ();
@@ -211,7 +260,8 @@ public class AutoCircleExtent implements Extent, DirectionalExtent {
 
         public void regenerate() {
             if (dirty) {
-                this.pointsList = generatePoints();
+                setPointsList(generatePoints());
+                dirty = false;
             }
         }
 
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.NumberConversions;
+import org.bukkit.util.Vector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents an {@link Extent} of arbitrary shape, stored as an origin and a bit-packed 3D occupancy grid with one bit per block. Containment is a
+ * bounds check plus a single bit test regardless of the shape's complexity, which makes it a good fit for large {@link UnionExtent}s.
+ * <p />
+ * Bitmaps are typically created with {@link #bake(Extent)}, and may be saved with {@link #write(DataOutput)} to skip baking next time.
+ */
+public class BitmapExtent implements Extent {
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    // Bit (y * sizeZ + z) * sizeX + x is set if that block, relative to the origin, is part of this extent.
+    private final long[] words;
+    private final int cardinality;
+    private final ExtentBounds bounds;
+
+    /**
+     * Bakes the blocks of an {@link Extent} into a {@link BitmapExtent}. The bitmap covers exactly the blocks visited by
+     * {@link Extent#forEachBlock(IntTriConsumer)}.
+     *
+     * @param extent extent to bake, must not be infinite
+     *
+     * @return bitmap of the extent
+     */
+    public static BitmapExtent bake(@Nonnull Extent extent) {
+        Preconditions.checkNotNull(extent, "extent cannot be null.");
+        Preconditions.checkArgument(!extent.isInfinite(), "extent cannot be infinite.");
+        int[] box = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        extent.forEachBlock((x, y, z) -> {
+            box[0] = Math.min(box[0], x);
+            box[1] = Math.min(box[1], y);
+            box[2] = Math.min(box[2], z);
+            box[3] = Math.max(box[3], x);
+            box[4] = Math.max(box[4], y);
+            box[5] = Math.max(box[5], z);
+        });
+        if (box[0] > box[3]) {
+            return new BitmapExtent(0, 0, 0, 0, 0, 0, new long[0]);
+        }
+        int sizeX = box[3] - box[0] + 1, sizeY = box[4] - box[1] + 1, sizeZ = box[5] - box[2] + 1;
+        long[] words = new long[wordCount(sizeX, sizeY, sizeZ)];
+        extent.forEachBlock((x, y, z) -> {
+            int index = ((y - box[1]) * sizeZ + (z - box[2])) * sizeX + (x - box[0]);
+            words[index >>> 6] |= 1L << index;
+        });
+        return new BitmapExtent(box[0], box[1], box[2], sizeX, sizeY, sizeZ, words);
+    }
+
+    /**
+     * Reads a {@link BitmapExtent} previously written by {@link #write(DataOutput)}.
+     *
+     * @param in input to read from
+     *
+     * @return the bitmap extent
+     * @throws IOException thrown if reading fails or the data is malformed
+     */
+    public static BitmapExtent read(@Nonnull DataInput in) throws IOException {
+        int originX = in.readInt(), originY = in.readInt(), originZ = in.readInt();
+        int sizeX = in.readInt(), sizeY = in.readInt(), sizeZ = in.readInt();
+        if (sizeX < 0 || sizeY < 0 || sizeZ < 0 || (long) sizeX * sizeY * sizeZ > Integer.MAX_VALUE) {
+            throw new IOException("Invalid bitmap size " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+        int length = sizeX * sizeY * sizeZ;
+        long[] words = new long[wordCount(sizeX, sizeY, sizeZ)];
+        // Runs alternate between unset and set bits, starting with unset.
+        boolean set = false;
+        for (int index = 0; index < length; set = !set) {
+            int run = in.readInt();
+            if (run < 0 || run > length - index) {
+                throw new IOException("Invalid bitmap run length " + run);
+            }
+            if (set) {
+                for (int end = index + run; index < end; index++) {
+                    words[index >>> 6] |= 1L << index;
+                }
+            } else {
+                index += run;
+            }
+        }
+        return new BitmapExtent(originX, originY, originZ, sizeX, sizeY, sizeZ, words);
+    }
+
+    private static int wordCount(int sizeX, int sizeY, int sizeZ) {
+        long bits = (long) sizeX * sizeY * sizeZ;
+        Preconditions.checkArgument(bits <= Integer.MAX_VALUE, "bitmap is too large (%s blocks).", bits);
+        return (int) ((bits + 63) >>> 6);
+    }
+
+    protected BitmapExtent(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ, @Nonnull long[] words) {
+        Preconditions.checkArgument(words.length == wordCount(sizeX, sizeY, sizeZ), "words length does not match size.");
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.words = words;
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        this.cardinality = cardinality;
+        this.bounds = cardinality == 0 ? ExtentBounds.EMPTY
+            : ExtentBounds.ofBlocks(originX, originY, originZ, originX + sizeX - 1, originY + sizeY - 1, originZ + sizeZ - 1);
+    }
+
+    /**
+     * Writes this bitmap, run-length encoded, to the given output. Use {@link #read(DataInput)} to read it back.
+     *
+     * @param out output to write to
+     *
+     * @throws IOException thrown if writing fails
+     */
+    public void write(@Nonnull DataOutput out) throws IOException {
+        out.writeInt(originX);
+        out.writeInt(originY);
+        out.writeInt(originZ);
+        out.writeInt(sizeX);
+        out.writeInt(sizeY);
+        out.writeInt(sizeZ);
+        int length = sizeX * sizeY * sizeZ;
+        boolean set = false;
+        int run = 0;
+        for (int index = 0; index < length; index++) {
+            if (isSet(index) != set) {
+                out.writeInt(run);
+                set = !set;
+                run = 0;
+            }
+            run++;
+        }
+        if (run > 0) {
+            out.writeInt(run);
+        }
+    }
+
+    private boolean isSet(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean contains(double x, double y, double z) {
+        if (!bounds.contains(x, y, z)) {
+            return false;
+        }
+        int dX = NumberConversions.floor(x) - originX, dY = NumberConversions.floor(y) - originY, dZ = NumberConversions.floor(z) - originZ;
+        // The upper bounds are exclusive in blocks, a point on the far face of the bounds is outside of the grid.
+        return dX < sizeX && dY < sizeY && dZ < sizeZ && isSet((dY * sizeZ + dZ) * sizeX + dX);
+    }
+
+    @Override
+    public void containsAll(@Nonnull double[] xs, @Nonnull double[] ys, @Nonnull double[] zs, int n, @Nonnull BitSet out) {
+        Extent.checkContainsAllArgs(xs, ys, zs, n, out);
+        for (int i = 0; i < n; i++) {
+            int dX = NumberConversions.floor(xs[i]) - originX, dY = NumberConversions.floor(ys[i]) - originY;
+            int dZ = NumberConversions.floor(zs[i]) - originZ;
+            // Unsigned comparisons reject negative offsets too.
+            out.set(i, Integer.compareUnsigned(dX, sizeX) < 0 && Integer.compareUnsigned(dY, sizeY) < 0 && Integer.compareUnsigned(dZ, sizeZ) < 0
+                && isSet((dY * sizeZ + dZ) * sizeX + dX));
+        }
+    }
+
+    /**
+     * Returns the exact number of blocks in this bitmap.
+     *
+     * @return volume of this bitmap
+     */
+    @Override
+    public double getVolume() {
+        return cardinality;
+    }
+
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public boolean isInfinite() {
+        return false;
+    }
+
+    @Override
+    public Vector getRandomLocation(Random random) {
+        Preconditions.checkState(cardinality > 0, "bitmap is empty.");
+        int rank = random.nextInt(cardinality);
+        for (int i = 0; ; i++) {
+            int count = Long.bitCount(words[i]);
+            if (rank < count) {
+                long word = words[i];
+                for (; rank > 0; rank--) {
+                    word &= word - 1;
+                }
+                int index = (i << 6) + Long.numberOfTrailingZeros(word);
+                int x = index % sizeX, z = index / sizeX % sizeZ, y = index / sizeX / sizeZ;
+                return new Vector(originX + x + random.nextDouble(), originY + y + random.nextDouble(), originZ + z + random.nextDouble());
+            }
+            rank -= count;
+        }
+    }
+
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                int index = (i << 6) + Long.numberOfTrailingZeros(word);
+                action.accept(originX + index % sizeX, originY + index / sizeX / sizeZ, originZ + index / sizeX % sizeZ);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<BlockVector> iterator() {
+        return new Iterator<BlockVector>() {
+            private int wordIndex = -1;
+            private long word;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (++wordIndex >= words.length) {
+                        return false;
+                    }
+                    word = words[wordIndex];
+                }
+                return true;
+            }
+
+            @Override
+            public BlockVector next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return new BlockVector(originX + index % sizeX, originY + index / sizeX / sizeZ, originZ + index / sizeX % sizeZ);
+            }
+        };
+    }
+
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginY() {
+        return originY;
+    }
+
+    public int getOriginZ() {
+        return originZ;
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getSizeZ() {
+        return sizeZ;
+    }
+}
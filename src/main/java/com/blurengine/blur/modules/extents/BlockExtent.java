@@ -19,6 +19,7 @@ package com.blurengine.blur.modules.extents;
 import com.google.common.base.Preconditions;
 
 import com.blurengine.blur.modules.extents.ExtentDirection.NullExtentDirection;
+import com.blurengine.blur.utils.IntTriConsumer;
 import com.supaham.commons.bukkit.utils.ImmutableBlockVector;
 import com.supaham.commons.bukkit.utils.ImmutableVector;
 
@@ -41,9 +42,12 @@ public class BlockExtent implements Extent, DirectionalExtent {
 
     private ImmutableVector vector;
     private ExtentDirection direction = NullExtentDirection.INSTANCE;
+    private final ExtentBounds bounds;
 
     public BlockExtent(@Nonnull ImmutableVector vector, @Nullable ExtentDirection direction) {
         this.vector = Preconditions.checkNotNull(vector, "vector cannot be null.");
+        this.bounds = ExtentBounds.ofBlocks(vector.getBlockX(), vector.getBlockY(), vector.getBlockZ(), vector.getBlockX(), vector.getBlockY(),
+            vector.getBlockZ());
         if (direction != null) {
             this.direction = direction;
         }
@@ -61,6 +65,12 @@ public class BlockExtent implements Extent, DirectionalExtent {
         return 1;
     }
 
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds;
+    }
+
     @Override
     public Vector getRandomLocation(Random random) {
         return vector.toBlockVector().add(new Vector(0.5, 0, 0.5));
@@ -87,6 +97,21 @@ public class BlockExtent implements Extent, DirectionalExtent {
         };
     }
 
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        action.accept(vector.getBlockX(), vector.getBlockY(), vector.getBlockZ());
+    }
+
+    @Override
+    public void forEachBlockBySection(@Nonnull IntTriConsumer action, @Nullable IntTriConsumer sectionAction) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        if (sectionAction != null) {
+            sectionAction.accept(vector.getBlockX() >> 4, vector.getBlockY() >> 4, vector.getBlockZ() >> 4);
+        }
+        action.accept(vector.getBlockX(), vector.getBlockY(), vector.getBlockZ());
+    }
+
     @Override
     public boolean isInfinite() {
         return false;
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Utilities shared by the composite extents, {@link IntersectionExtent} and {@link DifferenceExtent}.
+ */
+final class CompositeExtents {
+
+    /*
+     * Number of random locations to try before giving up in getRandomLocation.
+     */
+    static final int RANDOM_LOCATION_ATTEMPTS = 256;
+
+    private CompositeExtents() {}
+
+    /**
+     * Returns a rough relative cost of calling {@link Extent#contains(double, double, double)} on an {@link Extent}.
+     */
+    static int getContainsCost(Extent extent) {
+        if (extent instanceof BlockExtent || extent instanceof CuboidExtent || extent instanceof BitmapExtent) {
+            return 1;
+        } else if (extent instanceof CylinderExtent || extent instanceof AutoCircleExtent) {
+            return 2;
+        } else if (extent instanceof RemoteExtent) {
+            return 4;
+        }
+        return 3;
+    }
+
+    /**
+     * Returns a copy of the given extents, cheapest to test first. Extents of equal cost are ordered by the volume of their bounds, smallest first
+     * if {@code smallestFirst}, otherwise largest first.
+     */
+    static Extent[] orderByCost(Extent[] extents, boolean smallestFirst) {
+        Comparator<Extent> byVolume = Comparator.comparingDouble(extent -> extent.getBounds().getVolume());
+        Extent[] ordered = extents.clone();
+        Arrays.sort(ordered, Comparator.comparingInt(CompositeExtents::getContainsCost)
+            .thenComparing(smallestFirst ? byVolume : byVolume.reversed()));
+        return ordered;
+    }
+
+    /**
+     * Returns the bounds of the given extents that can never change, see {@link UnionExtent#hasFixedBounds(Extent)}. Extents whose bounds may
+     * change have null bounds.
+     */
+    static ExtentBounds[] getFixedBounds(Extent[] extents) {
+        ExtentBounds[] bounds = new ExtentBounds[extents.length];
+        for (int i = 0; i < extents.length; i++) {
+            if (UnionExtent.hasFixedBounds(extents[i])) {
+                bounds[i] = extents[i].getBounds();
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns whether all the given bounds are fixed, see {@link #getFixedBounds(Extent[])}.
+     */
+    static boolean allFixed(ExtentBounds[] bounds) {
+        for (ExtentBounds bound : bounds) {
+            if (bound == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
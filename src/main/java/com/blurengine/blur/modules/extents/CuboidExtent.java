@@ -19,6 +19,7 @@ package com.blurengine.blur.modules.extents;
 import com.google.common.base.Preconditions;
 
 import com.blurengine.blur.modules.extents.ExtentDirection.NullExtentDirection;
+import com.blurengine.blur.utils.IntTriConsumer;
 import com.supaham.commons.bukkit.utils.VectorUtils;
 import com.supaham.commons.utils.RandomUtils;
 
@@ -26,6 +27,7 @@ import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
@@ -41,6 +43,7 @@ public class CuboidExtent implements Extent, DirectionalExtent {
     private Vector min;
     private Vector max;
     private ExtentDirection direction = NullExtentDirection.INSTANCE;
+    private final ExtentBounds bounds;
 
     public CuboidExtent(@Nonnull Vector v1, @Nonnull Vector v2) {
         this(v1, v2, null);
@@ -51,6 +54,7 @@ public class CuboidExtent implements Extent, DirectionalExtent {
         Preconditions.checkNotNull(v2, "v2 cannot be null.");
         this.min = Vector.getMinimum(v1, v2);
         this.max = Vector.getMaximum(v1, v2);
+        this.bounds = ExtentBounds.ofBlocks(min.getBlockX(), min.getBlockY(), min.getBlockZ(), max.getBlockX(), max.getBlockY(), max.getBlockZ());
         if (direction != null) {
             this.direction = direction;
         }
@@ -63,11 +67,28 @@ public class CuboidExtent implements Extent, DirectionalExtent {
             z >= min.getBlockZ() && z < max.getBlockZ() + 1;
     }
 
+    @Override
+    public void containsAll(@Nonnull double[] xs, @Nonnull double[] ys, @Nonnull double[] zs, int n, @Nonnull BitSet out) {
+        Extent.checkContainsAllArgs(xs, ys, zs, n, out);
+        double minX = min.getBlockX(), minY = min.getBlockY(), minZ = min.getBlockZ();
+        double maxX = max.getBlockX() + 1, maxY = max.getBlockY() + 1, maxZ = max.getBlockZ() + 1;
+        for (int i = 0; i < n; i++) {
+            double x = xs[i], y = ys[i], z = zs[i];
+            out.set(i, x >= minX & x < maxX & y >= minY & y < maxY & z >= minZ & z < maxZ);
+        }
+    }
+
     @Override
     public double getVolume() {
         return (max.getX() - min.getX()) * (max.getY() - min.getY()) * (max.getZ() - min.getZ());
     }
 
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds;
+    }
+
     @Override
     public Vector getRandomLocation(Random random) {
         double x = RandomUtils.nextDouble(random, min.getX(), max.getX());
@@ -81,6 +102,27 @@ public class CuboidExtent implements Extent, DirectionalExtent {
         return new CuboidIterator();
     }
 
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        int minX = min.getBlockX(), minY = min.getBlockY(), minZ = min.getBlockZ();
+        int maxX = max.getBlockX(), maxY = max.getBlockY(), maxZ = max.getBlockZ();
+        for (int z = minZ; z <= maxZ; z++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    action.accept(x, y, z);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forEachBlockBySection(@Nonnull IntTriConsumer action, @Nullable IntTriConsumer sectionAction) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        ExtentSections.forEachBlockBySection(min.getBlockX(), min.getBlockY(), min.getBlockZ(), max.getBlockX(), max.getBlockY(), max.getBlockZ(),
+            action, sectionAction);
+    }
+
     @Override
     public boolean isInfinite() {
         return false;
@@ -19,15 +19,16 @@ package com.blurengine.blur.modules.extents;
 import com.google.common.base.Preconditions;
 
 import com.blurengine.blur.modules.extents.ExtentDirection.NullExtentDirection;
+import com.blurengine.blur.utils.IntTriConsumer;
 import com.supaham.commons.bukkit.utils.ImmutableVector;
 
 import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 import javax.annotation.Nonnull;
@@ -42,6 +43,7 @@ public class CylinderExtent implements Extent, DirectionalExtent {
     private final double radius;
     private final double height;
     private ExtentDirection direction = NullExtentDirection.INSTANCE;
+    private final ExtentBounds bounds;
 
     public CylinderExtent(@Nonnull ImmutableVector base, double radius, double height) {
         this(base, radius, height, null);
@@ -51,6 +53,8 @@ public class CylinderExtent implements Extent, DirectionalExtent {
         this.base = Preconditions.checkNotNull(base, "base vector cannot be null.");
         this.radius = radius;
         this.height = height;
+        this.bounds = ExtentBounds.of(base.getX() - radius, base.getY(), base.getZ() - radius, base.getX() + radius, base.getY() + height,
+            base.getZ() + radius);
         if (direction != null) {
             this.direction = direction;
         }
@@ -58,10 +62,26 @@ public class CylinderExtent implements Extent, DirectionalExtent {
 
     @Override
     public boolean contains(double x, double y, double z) {
-        if (y < base.getY() || (y > base.getY() + height)) {
+        // Also covers the height check.
+        if (!bounds.contains(x, y, z)) {
             return false;
         }
-        return Math.pow(x - base.getX(), 2) + Math.pow(z - base.getZ(), 2) < radius * radius;
+        return isWithinRadius(x - base.getX(), z - base.getZ());
+    }
+
+    private boolean isWithinRadius(double dX, double dZ) {
+        return dX * dX + dZ * dZ < radius * radius;
+    }
+
+    @Override
+    public void containsAll(@Nonnull double[] xs, @Nonnull double[] ys, @Nonnull double[] zs, int n, @Nonnull BitSet out) {
+        Extent.checkContainsAllArgs(xs, ys, zs, n, out);
+        double baseX = base.getX(), baseZ = base.getZ(), radiusSquared = radius * radius;
+        double minY = bounds.getMinY(), maxY = bounds.getMaxY();
+        for (int i = 0; i < n; i++) {
+            double dX = xs[i] - baseX, dZ = zs[i] - baseZ, y = ys[i];
+            out.set(i, y >= minY & y <= maxY & dX * dX + dZ * dZ < radiusSquared);
+        }
     }
 
     @Override
@@ -69,6 +89,12 @@ public class CylinderExtent implements Extent, DirectionalExtent {
         return Math.PI * radius * radius * height;
     }
 
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds;
+    }
+
     @Override
     public Vector getRandomLocation(Random random) {
         double x = base.getX();
@@ -81,23 +107,91 @@ public class CylinderExtent implements Extent, DirectionalExtent {
         return new Vector(rX, base.getY() + random.nextDouble() * height, rZ);
     }
 
+    /**
+     * Returns an {@link Iterator} over every block whose centre is within this cylinder, see {@link #forEachBlock(IntTriConsumer)}.
+     *
+     * @return block iterator
+     */
     @Override
     public Iterator<BlockVector> iterator() {
-        int spacing = 20;
-        List<BlockVector> result = new ArrayList<>(spacing);
-        double PI2 = Math.PI * 2.0;
-        for (int i = 0; i <= spacing; i++) {
-            double angle = ((double) i / spacing) * PI2;
-            double dX = Math.cos(angle) * this.radius + this.base.getX();
-            double dZ = Math.sin(angle) * this.radius + this.base.getZ();
-
-            // TODO Height 1 currently counts two separate heights, should it stay like that?
-            for (int j = 0; j <= (int) this.height; j++) {
-                result.add(new BlockVector(dX, this.base.getY() + j, dZ));
+        return new CylinderIterator();
+    }
 
+    /**
+     * Performs the given action for every block whose centre is within this cylinder. Each row of blocks along the x axis is filled from a single
+     * span computed with one square root per row, rather than testing every block.
+     *
+     * @param action action to perform on each block
+     */
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        int minY = getMinBlockY(), maxY = getMaxBlockY();
+        int minZ = getMinBlockZ(), maxZ = getMaxBlockZ();
+        int[] span = new int[2];
+        for (int z = minZ; z <= maxZ; z++) {
+            if (!getRowSpan(z, span)) {
+                continue;
             }
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = span[0]; x <= span[1]; x++) {
+                    action.accept(x, y, z);
+                }
+            }
+        }
+    }
+
+    /*
+     * Blocks are iterated by their centre: a block is within this cylinder if contains(x + 0.5, y + 0.5, z + 0.5).
+     */
+
+    private int getMinBlockY() {
+        return (int) Math.ceil(base.getY() - 0.5);
+    }
+
+    private int getMaxBlockY() {
+        return (int) Math.floor(base.getY() + height - 0.5);
+    }
+
+    private int getMinBlockZ() {
+        return (int) Math.floor(base.getZ() - radius - 0.5);
+    }
+
+    private int getMaxBlockZ() {
+        return (int) Math.ceil(base.getZ() + radius - 0.5);
+    }
+
+    /**
+     * Computes the span of block x coordinates of the given row whose centres are within the radius of this cylinder.
+     *
+     * @return false if the row has no blocks within the radius
+     */
+    private boolean getRowSpan(int z, int[] span) {
+        double dZ = z + 0.5 - base.getZ();
+        double remaining = radius * radius - dZ * dZ;
+        if (remaining <= 0) {
+            return false;
+        }
+        double halfWidth = Math.sqrt(remaining);
+        double centreX = base.getX() - 0.5; // Block x whose centre is the cylinder's centre.
+        int fromX = (int) Math.floor(centreX - halfWidth) + 1;
+        int toX = (int) Math.ceil(centreX + halfWidth) - 1;
+        // Correct rounding errors of the square root at the ends of the span, so the span agrees with contains.
+        while (fromX <= toX && !isWithinRadius(fromX + 0.5 - base.getX(), dZ)) {
+            fromX++;
+        }
+        while (isWithinRadius(fromX - 0.5 - base.getX(), dZ)) {
+            fromX--;
+        }
+        while (toX >= fromX && !isWithinRadius(toX + 0.5 - base.getX(), dZ)) {
+            toX--;
         }
-        return result.iterator();
+        while (isWithinRadius(toX + 1.5 - base.getX(), dZ)) {
+            toX++;
+        }
+        span[0] = fromX;
+        span[1] = toX;
+        return fromX <= toX;
     }
 
     @Override
@@ -122,4 +216,57 @@ public class CylinderExtent implements Extent, DirectionalExtent {
     public double getHeight() {
         return height;
     }
+
+    private class CylinderIterator implements Iterator<BlockVector> {
+
+        private final int minY = getMinBlockY();
+        private final int maxY = getMaxBlockY();
+        private final int maxZ = getMaxBlockZ();
+        private final int[] span = new int[2];
+        private int nextX;
+        private int nextY;
+        private int nextZ = getMinBlockZ() - 1;
+
+        {
+            nextRow();
+        }
+
+        /**
+         * Moves on to the first block of the next row that has any blocks.
+         */
+        private void nextRow() {
+            if (minY > maxY) {
+                nextZ = Integer.MAX_VALUE;
+                return;
+            }
+            while (++nextZ <= maxZ) {
+                if (getRowSpan(nextZ, span)) {
+                    nextX = span[0];
+                    nextY = minY;
+                    return;
+                }
+            }
+            nextZ = Integer.MAX_VALUE;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextZ != Integer.MAX_VALUE;
+        }
+
+        @Override
+        public BlockVector next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BlockVector answer = new BlockVector(nextX, nextY, nextZ);
+            if (++nextX > span[1]) {
+                nextX = span[0];
+                if (++nextY > maxY) {
+                    nextRow();
+                }
+            }
+            return answer;
+        }
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents the difference of {@link Extent}s, containing the points of a base extent that are not contained by any of the subtracted extents.
+ * <p />
+ * Subtracted extents are only tested for points within their bounds, cheapest and largest first. Iteration walks the blocks of the base extent,
+ * keeping blocks whose centre is not contained by any subtracted extent.
+ */
+public class DifferenceExtent implements Extent {
+
+    private final Extent base;
+    private final Collection<Extent> subtracted;
+    private final Extent[] children;
+    // See UnionExtent, null for children whose bounds may change.
+    private final ExtentBounds[] childBounds;
+    final ExtentBounds bounds;
+
+    public DifferenceExtent(@Nonnull Extent base, Extent... subtracted) {
+        this(base, Arrays.asList(subtracted));
+    }
+
+    public DifferenceExtent(@Nonnull Extent base, @Nonnull Collection<Extent> subtracted) {
+        this.base = Preconditions.checkNotNull(base, "base cannot be null.");
+        Preconditions.checkNotNull(subtracted, "subtracted cannot be null.");
+        this.subtracted = Collections.unmodifiableCollection(subtracted);
+        this.children = CompositeExtents.orderByCost(subtracted.toArray(new Extent[0]), false);
+        this.childBounds = CompositeExtents.getFixedBounds(children);
+        this.bounds = UnionExtent.hasFixedBounds(base) ? base.getBounds() : null;
+    }
+
+    @Override
+    public boolean contains(double x, double y, double z) {
+        if (bounds != null && !bounds.contains(x, y, z) || !base.contains(x, y, z)) {
+            return false;
+        }
+        return !subtractedContains(x, y, z);
+    }
+
+    private boolean subtractedContains(double x, double y, double z) {
+        for (int i = 0; i < children.length; i++) {
+            ExtentBounds childBounds = this.childBounds[i];
+            if ((childBounds == null || childBounds.contains(x, y, z)) && children[i].contains(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an upper bound of the volume of this difference, the volume of the base extent.
+     *
+     * @return upper bound of the volume of this difference
+     */
+    @Override
+    public double getVolume() {
+        return base.getVolume();
+    }
+
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds != null ? bounds : base.getBounds();
+    }
+
+    @Override
+    public boolean isInfinite() {
+        return base.isInfinite();
+    }
+
+    @Override
+    public Vector getRandomLocation(Random random) {
+        for (int i = 0; i < CompositeExtents.RANDOM_LOCATION_ATTEMPTS; i++) {
+            Vector location = base.getRandomLocation(random);
+            if (!subtractedContains(location.getX(), location.getY(), location.getZ())) {
+                return location;
+            }
+        }
+        throw new IllegalStateException("Could not find a random location within the difference.");
+    }
+
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        base.forEachBlock((x, y, z) -> {
+            if (!subtractedContains(x + 0.5, y + 0.5, z + 0.5)) {
+                action.accept(x, y, z);
+            }
+        });
+    }
+
+    @Override
+    public Iterator<BlockVector> iterator() {
+        return Iterators.filter(base.iterator(), bv -> !subtractedContains(bv.getX() + 0.5, bv.getY() + 0.5, bv.getZ() + 0.5));
+    }
+
+    public Extent getBase() {
+        return base;
+    }
+
+    /**
+     * Returns an immutable collection of {@link Extent}s that are subtracted from the base extent.
+     *
+     * @return immutable collection of extents
+     */
+    public Collection<Extent> getSubtracted() {
+        return subtracted;
+    }
+}
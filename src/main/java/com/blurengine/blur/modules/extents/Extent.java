@@ -20,6 +20,7 @@ import com.google.common.base.Preconditions;
 
 import com.blurengine.blur.modules.filters.Filter;
 import com.blurengine.blur.session.BlurPlayer;
+import com.blurengine.blur.utils.IntTriConsumer;
 import com.supaham.commons.bukkit.utils.ImmutableVector;
 import com.supaham.commons.utils.RandomUtils;
 
@@ -29,10 +30,12 @@ import org.bukkit.entity.Entity;
 import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.Random;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Represents an extent typically contained in a world. Extent extends {@link Filter} which allows for very convenient filter tests. Extent also has
@@ -49,7 +52,7 @@ public interface Extent extends Filter, Iterable<BlockVector> {
      * @return whether the {@code blurPlayer} is within this extent
      */
     default boolean contains(@Nonnull BlurPlayer blurPlayer) {
-        return contains(Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.").getPlayer().getLocation());
+        return contains(Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.").getReusableLocation());
     }
 
     /**
@@ -121,8 +124,96 @@ public interface Extent extends Filter, Iterable<BlockVector> {
      */
     boolean contains(double x, double y, double z);
 
+    /**
+     * Tests many points against this {@link Extent} at once. Bit {@code i} of {@code out} is set if the point ({@code xs[i]}, {@code ys[i]},
+     * {@code zs[i]}) is within this extent and cleared otherwise, for every {@code i} below {@code n}. Bits from {@code n} onwards are left
+     * untouched.
+     * <p />
+     * Extent implementations may override this with a tight loop that avoids the per-call overhead of {@link #contains(double, double, double)}.
+     *
+     * @param xs x components
+     * @param ys y components
+     * @param zs z components
+     * @param n number of points to test
+     * @param out bit set to write the results to
+     */
+    default void containsAll(@Nonnull double[] xs, @Nonnull double[] ys, @Nonnull double[] zs, int n, @Nonnull BitSet out) {
+        checkContainsAllArgs(xs, ys, zs, n, out);
+        for (int i = 0; i < n; i++) {
+            out.set(i, contains(xs[i], ys[i], zs[i]));
+        }
+    }
+
+    /**
+     * Tests the positions of a {@link PlayerPositions} snapshot against this {@link Extent}. Bit {@code i} of {@code out} is set if
+     * {@link PlayerPositions#getPlayer(int) player i} is within this extent, see {@link #containsAll(double[], double[], double[], int, BitSet)}.
+     *
+     * @param positions player positions to test
+     * @param out bit set to write the results to
+     */
+    default void containsAll(@Nonnull PlayerPositions positions, @Nonnull BitSet out) {
+        Preconditions.checkNotNull(positions, "positions cannot be null.");
+        containsAll(positions.getXs(), positions.getYs(), positions.getZs(), positions.size(), out);
+    }
+
+    /**
+     * Validates the arguments of {@link #containsAll(double[], double[], double[], int, BitSet)}, for use by implementations overriding it.
+     */
+    static void checkContainsAllArgs(double[] xs, double[] ys, double[] zs, int n, BitSet out) {
+        Preconditions.checkNotNull(xs, "xs cannot be null.");
+        Preconditions.checkNotNull(ys, "ys cannot be null.");
+        Preconditions.checkNotNull(zs, "zs cannot be null.");
+        Preconditions.checkNotNull(out, "out cannot be null.");
+        Preconditions.checkArgument(n >= 0 && n <= xs.length && n <= ys.length && n <= zs.length, "n must be within the length of all arrays.");
+    }
+
     double getVolume();
 
+    /**
+     * Returns the axis-aligned bounds of this {@link Extent}. Bounds may be conservative, every point this extent contains is within them but not
+     * every point within them is contained. This is primarily used to cheaply reject points before the more expensive {@link #contains} checks.
+     * <p />
+     * Defaults to {@link ExtentBounds#INFINITE}.
+     *
+     * @return bounds of this extent
+     */
+    @Nonnull
+    default ExtentBounds getBounds() {
+        return ExtentBounds.INFINITE;
+    }
+
+    /**
+     * Performs the given action for each block this {@link Extent} covers, passing the block coordinates as primitives. This visits the same
+     * blocks as {@link #iterator()} without allocating a {@link BlockVector} per block, so it should be preferred when walking large extents.
+     * <p />
+     * Defaults to walking {@link #iterator()}, extent implementations are expected to override this natively.
+     *
+     * @param action action to perform on each block
+     */
+    default void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        for (BlockVector bv : this) {
+            action.accept(bv.getBlockX(), bv.getBlockY(), bv.getBlockZ());
+        }
+    }
+
+    /**
+     * Performs the given action for each block this {@link Extent} covers, grouped by chunk section (16x16x16 blocks). Every block of a section is
+     * visited before moving on to the next section, and sections of the same chunk are visited together. This lets callers that touch the world
+     * look up each chunk or section once rather than once per block.
+     * <p />
+     * Each block is visited once, even if {@link #forEachBlock(IntTriConsumer)} would visit it more than once. The default implementation collects
+     * and sorts the blocks first, so it must only be used on finite extents.
+     *
+     * @param action action to perform on each block
+     * @param sectionAction action to perform with the section coordinates ({@code blockX >> 4} etc.) before the blocks of each section are
+     *     visited, nullable
+     */
+    default void forEachBlockBySection(@Nonnull IntTriConsumer action, @Nullable IntTriConsumer sectionAction) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        ExtentSections.forEachBlockBySection(this, action, sectionAction);
+    }
+
     /**
      * Returns a mutable version of this extent. The mutability will all be handled by the extension class, so be sure to read the documentation for
      * each extent class, as the mutable extent might modify the original extent.
@@ -162,7 +253,7 @@ public interface Extent extends Filter, Iterable<BlockVector> {
         } else if (object instanceof Location) {
             return FilterResponse.from(contains((Location) object));
         } else if (object instanceof BlurPlayer) {
-            return FilterResponse.from(contains(((BlurPlayer) object).getPlayer()));
+            return FilterResponse.from(contains((BlurPlayer) object));
         }
         return FilterResponse.ABSTAIN;
     }
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import org.bukkit.util.Vector;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents the immutable axis-aligned bounds of an {@link Extent}. Bounds are closed on both ends and are allowed to be conservative: every point
+ * an extent contains lies within its bounds, but not every point within the bounds is necessarily contained by the extent. This makes bounds a cheap
+ * way of rejecting points, and extents, that are obviously out of reach.
+ */
+public final class ExtentBounds {
+
+    /**
+     * Bounds that contain every point.
+     */
+    public static final ExtentBounds INFINITE = new ExtentBounds(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+    /**
+     * Bounds that contain no point at all.
+     */
+    public static final ExtentBounds EMPTY = new ExtentBounds(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+    private final double minX;
+    private final double minY;
+    private final double minZ;
+    private final double maxX;
+    private final double maxY;
+    private final double maxZ;
+
+    /**
+     * Returns the bounds covering whole blocks from one block to another, inclusive.
+     *
+     * @return bounds covering the blocks
+     */
+    public static ExtentBounds ofBlocks(int x1, int y1, int z1, int x2, int y2, int z2) {
+        return new ExtentBounds(Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2), Math.max(x1, x2) + 1, Math.max(y1, y2) + 1,
+            Math.max(z1, z2) + 1);
+    }
+
+    /**
+     * Returns the bounds between two points, in any order.
+     *
+     * @return bounds between the two points
+     */
+    public static ExtentBounds of(double x1, double y1, double z1, double x2, double y2, double z2) {
+        return new ExtentBounds(Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2), Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2));
+    }
+
+    private ExtentBounds(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public boolean contains(double x, double y, double z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    public boolean contains(@Nonnull Vector vector) {
+        Preconditions.checkNotNull(vector, "vector cannot be null.");
+        return contains(vector.getX(), vector.getY(), vector.getZ());
+    }
+
+    public boolean intersects(@Nonnull ExtentBounds other) {
+        Preconditions.checkNotNull(other, "other cannot be null.");
+        return minX <= other.maxX && maxX >= other.minX && minY <= other.maxY && maxY >= other.minY && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+
+    /**
+     * Returns whether these and the given bounds share any volume. Unlike {@link #intersects(ExtentBounds)}, bounds that only touch don't overlap.
+     *
+     * @param other other bounds
+     *
+     * @return whether the bounds overlap
+     */
+    public boolean overlaps(@Nonnull ExtentBounds other) {
+        Preconditions.checkNotNull(other, "other cannot be null.");
+        return minX < other.maxX && maxX > other.minX && minY < other.maxY && maxY > other.minY && minZ < other.maxZ && maxZ > other.minZ;
+    }
+
+    /**
+     * Returns the smallest bounds containing both these and the given bounds.
+     *
+     * @param other other bounds
+     *
+     * @return union bounds
+     */
+    public ExtentBounds union(@Nonnull ExtentBounds other) {
+        Preconditions.checkNotNull(other, "other cannot be null.");
+        if (other.isEmpty() || this == INFINITE) {
+            return this;
+        } else if (isEmpty() || other == INFINITE) {
+            return other;
+        }
+        return new ExtentBounds(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+            Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Returns the largest bounds contained by both these and the given bounds.
+     *
+     * @param other other bounds
+     *
+     * @return intersection bounds, {@link #EMPTY} if the bounds don't intersect
+     */
+    public ExtentBounds intersection(@Nonnull ExtentBounds other) {
+        Preconditions.checkNotNull(other, "other cannot be null.");
+        if (other == INFINITE || isEmpty()) {
+            return this;
+        } else if (this == INFINITE || other.isEmpty()) {
+            return other;
+        } else if (!intersects(other)) {
+            return EMPTY;
+        }
+        return new ExtentBounds(Math.max(minX, other.minX), Math.max(minY, other.minY), Math.max(minZ, other.minZ),
+            Math.min(maxX, other.maxX), Math.min(maxY, other.maxY), Math.min(maxZ, other.maxZ));
+    }
+
+    public ExtentBounds translate(double x, double y, double z) {
+        if (isEmpty() || isInfinite() || (x == 0 && y == 0 && z == 0)) {
+            return this;
+        }
+        return new ExtentBounds(minX + x, minY + y, minZ + z, maxX + x, maxY + y, maxZ + z);
+    }
+
+    public boolean isEmpty() {
+        return minX > maxX || minY > maxY || minZ > maxZ;
+    }
+
+    public boolean isInfinite() {
+        return Double.isInfinite(minX) || Double.isInfinite(minY) || Double.isInfinite(minZ)
+            || Double.isInfinite(maxX) || Double.isInfinite(maxY) || Double.isInfinite(maxZ);
+    }
+
+    public double getVolume() {
+        return isEmpty() ? 0 : (maxX - minX) * (maxY - minY) * (maxZ - minZ);
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMinZ() {
+        return minZ;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ExtentBounds)) {
+            return false;
+        }
+        ExtentBounds o = (ExtentBounds) obj;
+        return minX == o.minX && minY == o.minY && minZ == o.minZ && maxX == o.maxX && maxY == o.maxY && maxZ == o.maxZ;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(minX);
+        result = 31 * result + Double.hashCode(minY);
+        result = 31 * result + Double.hashCode(minZ);
+        result = 31 * result + Double.hashCode(maxX);
+        result = 31 * result + Double.hashCode(maxY);
+        result = 31 * result + Double.hashCode(maxZ);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtentBounds{" + minX + ", " + minY + ", " + minZ + " -> " + maxX + ", " + maxY + ", " + maxZ + "}";
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Uniform grid of 16x16 block columns indexing {@link Extent}s by their {@link ExtentBounds}. Extents with infinite bounds, or bounds too large to be
+ * worth indexing, are kept aside and are a candidate of every query.
+ * <p />
+ * Extents whose bounds may change, such as {@link RemoteExtent}s, are kept aside too, as any cells they were put in could be stale by the time they
+ * are queried.
+ */
+final class ExtentIndex {
+
+    private static final int CELL_SHIFT = 4;
+    private static final int MAX_INDEXED_CELLS = 1024;
+    private static final long[] NO_CELLS = new long[0];
+
+    private final Map<Long, List<Extent>> cells = new HashMap<>();
+    private final List<Extent> unindexed = new ArrayList<>();
+    // Cells of each extent, null for unindexed extents.
+    private final Map<Extent, long[]> extentCells = new IdentityHashMap<>();
+
+    public boolean add(Extent extent) {
+        if (this.extentCells.containsKey(extent)) {
+            return false;
+        }
+        long[] cells = UnionExtent.hasFixedBounds(extent) ? getCells(extent.getBounds()) : null;
+        this.extentCells.put(extent, cells);
+        addToCells(extent, cells);
+        return true;
+    }
+
+    public boolean remove(Extent extent) {
+        if (!this.extentCells.containsKey(extent)) {
+            return false;
+        }
+        removeFromCells(extent, this.extentCells.remove(extent));
+        return true;
+    }
+
+    /**
+     * Returns the extents that may contain a point. The returned extents still need to be tested with {@link Extent#contains(double, double,
+     * double)}, and the list must not be modified.
+     */
+    public List<Extent> getCandidates(double x, double y, double z) {
+        List<Extent> cell = this.cells.get(getCell(x, z));
+        if (cell == null) {
+            return this.unindexed;
+        } else if (this.unindexed.isEmpty()) {
+            return cell;
+        }
+        List<Extent> result = new ArrayList<>(cell.size() + this.unindexed.size());
+        result.addAll(cell);
+        result.addAll(this.unindexed);
+        return result;
+    }
+
+    /**
+     * Returns the extents that may intersect the given bounds, without duplicates.
+     */
+    public Set<Extent> getCandidates(ExtentBounds bounds) {
+        Set<Extent> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        long[] cells = getCells(bounds);
+        if (cells == null) {
+            result.addAll(this.extentCells.keySet());
+            return result;
+        }
+        for (long cell : cells) {
+            List<Extent> extents = this.cells.get(cell);
+            if (extents != null) {
+                result.addAll(extents);
+            }
+        }
+        result.addAll(this.unindexed);
+        return result;
+    }
+
+    private void addToCells(Extent extent, @Nullable long[] cells) {
+        if (cells == null) {
+            this.unindexed.add(extent);
+            return;
+        }
+        for (long cell : cells) {
+            this.cells.computeIfAbsent(cell, k -> new ArrayList<>(2)).add(extent);
+        }
+    }
+
+    private void removeFromCells(Extent extent, @Nullable long[] cells) {
+        if (cells == null) {
+            this.unindexed.remove(extent);
+            return;
+        }
+        for (long cell : cells) {
+            List<Extent> extents = this.cells.get(cell);
+            extents.remove(extent);
+            if (extents.isEmpty()) {
+                this.cells.remove(cell);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of the grid cells some bounds overlap, or null if the bounds are infinite or too large to be worth indexing.
+     */
+    @Nullable
+    static long[] getCells(ExtentBounds bounds) {
+        if (bounds.isEmpty()) {
+            return NO_CELLS;
+        } else if (bounds.isInfinite()) {
+            return null;
+        }
+        int minCellX = floor(bounds.getMinX()) >> CELL_SHIFT, minCellZ = floor(bounds.getMinZ()) >> CELL_SHIFT;
+        int maxCellX = floor(bounds.getMaxX()) >> CELL_SHIFT, maxCellZ = floor(bounds.getMaxZ()) >> CELL_SHIFT;
+        long count = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (count > MAX_INDEXED_CELLS) {
+            return null;
+        }
+        long[] cells = new long[(int) count];
+        int i = 0;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                cells[i++] = BlockKeys.of(cellX, 0, cellZ);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the key of the grid cell containing a point.
+     */
+    static long getCell(double x, double z) {
+        return BlockKeys.of(floor(x) >> CELL_SHIFT, 0, floor(z) >> CELL_SHIFT);
+    }
+
+    private static int floor(double d) {
+        int i = (int) d;
+        return d < i ? i - 1 : i;
+    }
+}
@@ -17,6 +17,8 @@
 package com.blurengine.blur.modules.extents;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import com.blurengine.blur.framework.InternalModule;
 import com.blurengine.blur.framework.Module;
@@ -28,16 +30,17 @@ import com.supaham.commons.utils.StringUtils;
 
 import org.bukkit.util.Vector;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
@@ -50,8 +53,19 @@ import javax.annotation.Nonnull;
 public class ExtentManager extends Module {
 
     public static final String FILTER_PREFIX = "extent-";
+    private static final int MAX_CACHED_PATTERNS = 256;
 
     private Map<String, Extent> extents = new HashMap<>();
+    private final ExtentIndex index = new ExtentIndex();
+    // Sorted ids for prefix queries.
+    private final NavigableSet<String> sortedIds = new TreeSet<>();
+    // Compiled regexes, bounded as lookups may come from anywhere at runtime.
+    private final Cache<String, Pattern> patterns = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATTERNS).build();
+    /*
+     * Memoized regex lookups, keyed by the flags and pattern string, valued by the result extent or null if nothing matched. Memoizing also means
+     * repeated lookups return the same UnionExtent instance. Cleared whenever the registered extents change.
+     */
+    private final Map<String, Optional<Extent>> regexResults = new HashMap<>();
 
     static {
         ModuleLoader.register(ExtentsModule.class);
@@ -75,6 +89,13 @@ public class ExtentManager extends Module {
 
         }
         this.extents.put(id, extent);
+        this.sortedIds.add(id);
+        this.index.add(extent);
+        invalidateLookups();
+    }
+
+    private void invalidateLookups() {
+        this.regexResults.clear();
     }
 
     /* ================================
@@ -109,24 +130,93 @@ public class ExtentManager extends Module {
 
     public Extent getExtentByRegex(String regex) throws ExtentNotFoundException {
         StringUtils.checkNotNullOrEmpty(regex, "regex");
-        return getExtentByRegex(Pattern.compile(regex));
+        Pattern pattern = this.patterns.getIfPresent(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            this.patterns.put(regex, pattern);
+        }
+        return getExtentByRegex(pattern);
     }
 
+    /**
+     * Returns the {@link Extent} whose id matches the given {@link Pattern}, or a {@link UnionExtent} of all of them if more than one matches.
+     * Results are memoized until an extent is added, so repeated lookups return the same instance.
+     *
+     * @param pattern pattern to match ids against
+     *
+     * @return the matching extent(s)
+     * @throws ExtentNotFoundException thrown if no extent id matches
+     */
     @Nonnull
     public Extent getExtentByRegex(Pattern pattern) throws ExtentNotFoundException {
         Preconditions.checkNotNull(pattern, "pattern cannot be null.");
-        List<Extent> found = this.extents.entrySet().stream()
-            .filter(e -> pattern.matcher(e.getKey()).matches())
-            .map(Entry::getValue)
-            .collect(Collectors.toList());
-        switch (found.size()) {
-            case 0:
-                throw new ExtentNotFoundException(pattern);
-            case 1:
-                return found.get(0);
-            default:
-                return new UnionExtent(found);
+        Optional<Extent> result = this.regexResults.computeIfAbsent(pattern.flags() + ":" + pattern.pattern(), k -> {
+            List<Extent> found = new ArrayList<>();
+            for (String id : getCandidateIds(pattern)) {
+                if (pattern.matcher(id).matches()) {
+                    found.add(this.extents.get(id));
+                }
+            }
+            switch (found.size()) {
+                case 0:
+                    return Optional.empty();
+                case 1:
+                    return Optional.of(found.get(0));
+                default:
+                    return Optional.of(new UnionExtent(found));
+            }
+        });
+        return result.orElseThrow(() -> new ExtentNotFoundException(pattern));
+    }
+
+    /**
+     * Returns the ids that may match a pattern. If every match must start with a literal prefix, only the ids with that prefix are returned.
+     */
+    private Collection<String> getCandidateIds(Pattern pattern) {
+        String prefix = getLiteralPrefix(pattern);
+        return prefix.isEmpty() ? this.sortedIds : getIdsByPrefix(prefix);
+    }
+
+    /**
+     * Returns the literal prefix every string matching the given pattern starts with, e.g. "cp-" for "cp-.*". This is conservative and returns an
+     * empty string for anything but plain characters followed by the rest of the pattern.
+     */
+    static String getLiteralPrefix(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (pattern.flags() != 0 || regex.indexOf('|') >= 0) {
+            return "";
+        }
+        int end = 0;
+        while (end < regex.length() && "\\[](){}.*+?^$".indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+        // A quantifier makes the character before it optional, e.g. "spawn-red-*".
+        if (end < regex.length() && end > 0 && "*?{".indexOf(regex.charAt(end)) >= 0) {
+            end--;
         }
+        return regex.substring(0, end);
+    }
+
+    private Collection<String> getIdsByPrefix(String prefix) {
+        return this.sortedIds.subSet(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    /**
+     * Returns the {@link Extent}s whose ids start with the given prefix, ordered by id.
+     *
+     * @param prefix prefix of the ids
+     *
+     * @return list of extents
+     */
+    @Nonnull
+    public List<Extent> getExtentsByPrefix(@Nonnull String prefix) {
+        Preconditions.checkNotNull(prefix, "prefix cannot be null.");
+        Collection<String> ids = prefix.isEmpty() ? this.sortedIds : getIdsByPrefix(prefix);
+        List<Extent> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(this.extents.get(id));
+        }
+        return result;
     }
 
     @Nonnull
@@ -140,11 +230,45 @@ public class ExtentManager extends Module {
 
     public Optional<Extent> getFirstExtentWithin(@Nonnull Vector vector) {
         Preconditions.checkNotNull(vector, "vector cannot be null.");
-        return getExtents().stream().filter(e -> e.contains(vector)).findFirst();
+        for (Extent extent : this.index.getCandidates(vector.getX(), vector.getY(), vector.getZ())) {
+            if (extent.contains(vector)) {
+                return Optional.of(extent);
+            }
+        }
+        return Optional.empty();
     }
 
     public List<Extent> getExtentsWithin(@Nonnull Vector vector) {
         Preconditions.checkNotNull(vector, "vector cannot be null.");
-        return getExtents().stream().filter(e -> e.contains(vector)).collect(Collectors.toList());
+        return getExtentsWithin(vector.getX(), vector.getY(), vector.getZ());
+    }
+
+    public List<Extent> getExtentsWithin(double x, double y, double z) {
+        List<Extent> result = new ArrayList<>();
+        for (Extent extent : this.index.getCandidates(x, y, z)) {
+            if (extent.contains(x, y, z)) {
+                result.add(extent);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the registered {@link Extent}s whose bounds intersect the given bounds. As bounds may be conservative, the extents themselves aren't
+     * guaranteed to intersect them.
+     *
+     * @param bounds bounds to test
+     *
+     * @return list of extents
+     */
+    public List<Extent> getExtentsIntersecting(@Nonnull ExtentBounds bounds) {
+        Preconditions.checkNotNull(bounds, "bounds cannot be null.");
+        List<Extent> result = new ArrayList<>();
+        for (Extent extent : this.index.getCandidates(bounds)) {
+            if (extent.getBounds().intersects(bounds)) {
+                result.add(extent);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.events.players.PlayerLeaveSessionEvent;
+import com.blurengine.blur.events.players.PlayerMoveBlockEvent;
+import com.blurengine.blur.framework.InternalModule;
+import com.blurengine.blur.framework.Module;
+import com.blurengine.blur.framework.ModuleInfo;
+import com.blurengine.blur.framework.ModuleManager;
+import com.blurengine.blur.framework.SessionScoped;
+import com.blurengine.blur.session.BlurPlayer;
+
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Represents a {@link Module} that keeps track of which registered {@link Extent}s each {@link BlurPlayer} of the session is inside of, calling
+ * {@link PlayerEnterExtentEvent} and {@link PlayerExitExtentEvent} as players cross their boundaries.
+ * <p />
+ * Extents are indexed in the same grid of 16x16 block columns as {@link ExtentIndex}, so a block move only tests the extents overlapping the
+ * player's column and the extents the player is already inside of. Extents with infinite bounds, bounds that may change, or bounds too large to be
+ * worth indexing are tested on every move.
+ * <p />
+ * The same extent may be tracked more than once, e.g. by two modules sharing it, it is only untracked once every {@link #track(Extent)} has been
+ * matched by an {@link #untrack(Extent)}.
+ */
+@ModuleInfo(name = "BlurExtentMembershipTracker")
+@InternalModule
+@SessionScoped
+public class ExtentMembershipTracker extends Module {
+
+    private final Map<Extent, TrackedExtent> tracked = new IdentityHashMap<>();
+    private final List<TrackedExtent> slots = new ArrayList<>();
+    private final Map<Long, BitSet> grid = new HashMap<>();
+    private final BitSet unindexed = new BitSet();
+    private final Map<BlurPlayer, BitSet> memberships = new HashMap<>();
+    // Only listen to block moves while something is tracked, this keeps the PlayerMoveBlockEvent emitter idle otherwise.
+    private final Listener moveListener = new MoveListener();
+
+    public ExtentMembershipTracker(ModuleManager moduleManager) {
+        super(moduleManager);
+    }
+
+    @Override
+    public void unload() {
+        this.memberships.clear();
+    }
+
+    @EventHandler
+    public void onPlayerLeaveSession(PlayerLeaveSessionEvent event) {
+        if (isSession(event)) {
+            this.memberships.remove(event.getBlurPlayer());
+        }
+    }
+
+    /**
+     * Starts tracking an {@link Extent}. Players' membership of the extent is evaluated on their next block move.
+     *
+     * @param extent extent to track
+     *
+     * @return whether the extent was not already tracked
+     */
+    public boolean track(@Nonnull Extent extent) {
+        Preconditions.checkNotNull(extent, "extent cannot be null.");
+        TrackedExtent trackedExtent = this.tracked.get(extent);
+        if (trackedExtent != null) {
+            trackedExtent.references++;
+            return false;
+        }
+
+        int index = this.slots.indexOf(null);
+        if (index < 0) {
+            index = this.slots.size();
+            this.slots.add(null);
+        }
+        trackedExtent = new TrackedExtent(extent, index, getCells(extent));
+        this.slots.set(index, trackedExtent);
+        if (trackedExtent.cells == null) {
+            this.unindexed.set(index);
+        } else {
+            for (long cell : trackedExtent.cells) {
+                this.grid.computeIfAbsent(cell, k -> new BitSet()).set(index);
+            }
+        }
+
+        if (this.tracked.isEmpty()) {
+            addListener(this.moveListener);
+        }
+        this.tracked.put(extent, trackedExtent);
+        return true;
+    }
+
+    /**
+     * Stops tracking an {@link Extent}. No {@link PlayerExitExtentEvent} is called for the players inside of it.
+     *
+     * @param extent extent to untrack
+     *
+     * @return whether the extent is no longer tracked
+     */
+    public boolean untrack(@Nonnull Extent extent) {
+        Preconditions.checkNotNull(extent, "extent cannot be null.");
+        TrackedExtent trackedExtent = this.tracked.get(extent);
+        if (trackedExtent == null || --trackedExtent.references > 0) {
+            return false;
+        }
+
+        int index = trackedExtent.index;
+        this.tracked.remove(extent);
+        this.slots.set(index, null);
+        if (trackedExtent.cells == null) {
+            this.unindexed.clear(index);
+        } else {
+            for (long cell : trackedExtent.cells) {
+                BitSet bits = this.grid.get(cell);
+                bits.clear(index);
+                if (bits.isEmpty()) {
+                    this.grid.remove(cell);
+                }
+            }
+        }
+        this.memberships.values().forEach(bits -> bits.clear(index));
+
+        if (this.tracked.isEmpty()) {
+            removeListener(this.moveListener);
+        }
+        return true;
+    }
+
+    public boolean isTracked(@Nonnull Extent extent) {
+        return this.tracked.containsKey(Preconditions.checkNotNull(extent, "extent cannot be null."));
+    }
+
+    /**
+     * Returns whether a {@link BlurPlayer} was inside of a tracked {@link Extent} as of their last block move.
+     *
+     * @param blurPlayer player to check
+     * @param extent tracked extent to check
+     *
+     * @return whether the player is inside the extent, false if the extent is not tracked
+     */
+    public boolean isInside(@Nonnull BlurPlayer blurPlayer, @Nonnull Extent extent) {
+        Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.");
+        TrackedExtent trackedExtent = this.tracked.get(Preconditions.checkNotNull(extent, "extent cannot be null."));
+        BitSet membership = this.memberships.get(blurPlayer);
+        return trackedExtent != null && membership != null && membership.get(trackedExtent.index);
+    }
+
+    /**
+     * Reevaluates a {@link BlurPlayer}'s membership at their current location. This is done automatically on every block move, but is useful
+     * after teleporting a player.
+     *
+     * @param blurPlayer player to update
+     */
+    public void update(@Nonnull BlurPlayer blurPlayer) {
+        Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.");
+        Location location = blurPlayer.getReusableLocation();
+        update(blurPlayer, location.getX(), location.getY(), location.getZ());
+    }
+
+    private void update(BlurPlayer blurPlayer, double x, double y, double z) {
+        if (this.tracked.isEmpty()) {
+            return;
+        }
+        BitSet membership = this.memberships.computeIfAbsent(blurPlayer, bp -> new BitSet());
+        // Copied as event handlers may track and untrack extents while we iterate.
+        BitSet candidates = (BitSet) this.unindexed.clone();
+        BitSet cell = this.grid.get(ExtentIndex.getCell(x, z));
+        if (cell != null) {
+            candidates.or(cell);
+        }
+        candidates.or(membership);
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            TrackedExtent trackedExtent = i < this.slots.size() ? this.slots.get(i) : null;
+            if (trackedExtent == null) {
+                continue;
+            }
+            boolean inside = trackedExtent.extent.contains(x, y, z);
+            if (inside != membership.get(i)) {
+                membership.set(i, inside);
+                if (inside) {
+                    getSession().callEvent(new PlayerEnterExtentEvent(blurPlayer, trackedExtent.extent));
+                } else {
+                    getSession().callEvent(new PlayerExitExtentEvent(blurPlayer, trackedExtent.extent));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the grid cells an {@link Extent} overlaps, or null if it should be tested on every move.
+     */
+    @Nullable
+    private static long[] getCells(Extent extent) {
+        // Bounds of mutable and remote extents may change after they are indexed.
+        return UnionExtent.hasFixedBounds(extent) ? ExtentIndex.getCells(extent.getBounds()) : null;
+    }
+
+    private static final class TrackedExtent {
+
+        private final Extent extent;
+        private final int index;
+        @Nullable private final long[] cells;
+        private int references = 1;
+
+        private TrackedExtent(Extent extent, int index, @Nullable long[] cells) {
+            this.extent = extent;
+            this.index = index;
+            this.cells = cells;
+        }
+    }
+
+    @SessionScoped
+    private final class MoveListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onPlayerMoveBlock(PlayerMoveBlockEvent event) {
+            if (isSession(event)) {
+                Location to = event.getTo();
+                update(event.getBlurPlayer(), to.getX(), to.getY(), to.getZ());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Implementations of {@link Extent#forEachBlockBySection(IntTriConsumer, IntTriConsumer)}. Sections are visited chunk by chunk, bottom to top
+ * within a chunk, and blocks within a section are visited in the section's storage order: y, then z, then x.
+ */
+final class ExtentSections {
+
+    private static final int SECTION_SHIFT = 4;
+    private static final int SECTION_MASK = 15;
+    // Sort key layout: section x (22 bits) | section z (22 bits) | section y (8 bits) | y, z, x within the section (12 bits).
+    private static final int XZ_BIAS = 1 << 21;
+    private static final int Y_BIAS = 1 << 7;
+    private static final long XZ_MASK = (1L << 22) - 1;
+    private static final long Y_MASK = (1L << 8) - 1;
+
+    private ExtentSections() {}
+
+    /**
+     * Visits the blocks of any finite {@link Extent} grouped by section. The blocks from {@link Extent#forEachBlock(IntTriConsumer)} are collected
+     * into sortable keys and sorted, which also drops blocks visited more than once.
+     */
+    static void forEachBlockBySection(@Nonnull Extent extent, @Nonnull IntTriConsumer action, @Nullable IntTriConsumer sectionAction) {
+        double volume = extent.getVolume();
+        KeyCollector collector = new KeyCollector(volume > 16 ? (int) Math.min(volume, 1 << 20) : 16);
+        extent.forEachBlock(collector);
+        long[] keys = collector.keys;
+        int size = collector.size;
+        Arrays.sort(keys, 0, size);
+
+        long lastSection = -1;
+        for (int i = 0; i < size; i++) {
+            long key = keys[i];
+            if (i > 0 && key == keys[i - 1]) {
+                continue;
+            }
+            int sectionX = (int) (key >>> 42) - XZ_BIAS;
+            int sectionZ = (int) ((key >>> 20) & XZ_MASK) - XZ_BIAS;
+            int sectionY = (int) ((key >>> 12) & Y_MASK) - Y_BIAS;
+            long section = key >>> 12;
+            if (sectionAction != null && section != lastSection) {
+                sectionAction.accept(sectionX, sectionY, sectionZ);
+            }
+            lastSection = section;
+            int local = (int) key & 0xFFF;
+            action.accept(sectionX << SECTION_SHIFT | local & SECTION_MASK, sectionY << SECTION_SHIFT | local >>> 8,
+                sectionZ << SECTION_SHIFT | (local >>> SECTION_SHIFT) & SECTION_MASK);
+        }
+    }
+
+    /**
+     * Visits every block of a box of blocks grouped by section, without allocating. All bounds are inclusive.
+     */
+    static void forEachBlockBySection(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, @Nonnull IntTriConsumer action,
+                                      @Nullable IntTriConsumer sectionAction) {
+        for (int sectionX = minX >> SECTION_SHIFT; sectionX <= maxX >> SECTION_SHIFT; sectionX++) {
+            int fromX = Math.max(minX, sectionX << SECTION_SHIFT);
+            int toX = Math.min(maxX, sectionX << SECTION_SHIFT | SECTION_MASK);
+            for (int sectionZ = minZ >> SECTION_SHIFT; sectionZ <= maxZ >> SECTION_SHIFT; sectionZ++) {
+                int fromZ = Math.max(minZ, sectionZ << SECTION_SHIFT);
+                int toZ = Math.min(maxZ, sectionZ << SECTION_SHIFT | SECTION_MASK);
+                for (int sectionY = minY >> SECTION_SHIFT; sectionY <= maxY >> SECTION_SHIFT; sectionY++) {
+                    if (sectionAction != null) {
+                        sectionAction.accept(sectionX, sectionY, sectionZ);
+                    }
+                    int fromY = Math.max(minY, sectionY << SECTION_SHIFT);
+                    int toY = Math.min(maxY, sectionY << SECTION_SHIFT | SECTION_MASK);
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                action.accept(x, y, z);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static long sortKey(int x, int y, int z) {
+        long sectionX = (x >> SECTION_SHIFT) + XZ_BIAS;
+        long sectionZ = (z >> SECTION_SHIFT) + XZ_BIAS;
+        long sectionY = (y >> SECTION_SHIFT) + Y_BIAS;
+        int local = (y & SECTION_MASK) << 8 | (z & SECTION_MASK) << SECTION_SHIFT | x & SECTION_MASK;
+        return sectionX << 42 | (sectionZ & XZ_MASK) << 20 | (sectionY & Y_MASK) << 12 | local;
+    }
+
+    private static final class KeyCollector implements IntTriConsumer {
+
+        private long[] keys;
+        private int size;
+
+        private KeyCollector(int initialCapacity) {
+            this.keys = new long[initialCapacity];
+        }
+
+        @Override
+        public void accept(int x, int y, int z) {
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+            }
+            this.keys[this.size++] = sortKey(x, y, z);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents the intersection of {@link Extent}s, containing only the points contained by every one of them.
+ * <p />
+ * Children are tested cheapest and most selective first, after rejecting points outside of the intersection of their bounds. Iteration walks the
+ * blocks of the smallest child only, keeping blocks whose centre is contained by all other children.
+ */
+public class IntersectionExtent implements Extent {
+
+    private final Collection<Extent> extents;
+    private final Extent[] children;
+    // See UnionExtent, null for children whose bounds may change.
+    private final ExtentBounds[] childBounds;
+    final ExtentBounds bounds;
+
+    public IntersectionExtent(Extent... extents) {
+        this(Arrays.asList(extents));
+    }
+
+    public IntersectionExtent(@Nonnull Collection<Extent> extents) {
+        Preconditions.checkNotNull(extents, "extents cannot be null.");
+        Preconditions.checkArgument(!extents.isEmpty(), "extents cannot be empty.");
+        this.extents = Collections.unmodifiableCollection(extents);
+        this.children = CompositeExtents.orderByCost(extents.toArray(new Extent[0]), true);
+        this.childBounds = CompositeExtents.getFixedBounds(children);
+        this.bounds = CompositeExtents.allFixed(childBounds) ? computeBounds() : null;
+    }
+
+    private ExtentBounds computeBounds() {
+        ExtentBounds result = ExtentBounds.INFINITE;
+        for (int i = 0; i < children.length; i++) {
+            result = result.intersection(childBounds[i] != null ? childBounds[i] : children[i].getBounds());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(double x, double y, double z) {
+        if (bounds != null) {
+            // Points within the intersection of the bounds are within the bounds of every child.
+            if (!bounds.contains(x, y, z)) {
+                return false;
+            }
+            for (Extent child : children) {
+                if (!child.contains(x, y, z)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = 0; i < children.length; i++) {
+            if (childBounds[i] != null && !childBounds[i].contains(x, y, z)) {
+                return false;
+            }
+        }
+        for (Extent child : children) {
+            if (!child.contains(x, y, z)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether all children but {@code skip} contain a point.
+     */
+    private boolean containsExcept(Extent skip, ExtentBounds bounds, double x, double y, double z) {
+        if (!bounds.contains(x, y, z)) {
+            return false;
+        }
+        for (Extent child : children) {
+            if (child != skip && !child.contains(x, y, z)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the child with the smallest volume, preferring finite children. This is the child whose blocks are iterated.
+     */
+    private Extent getSmallestChild() {
+        Extent smallest = children[0];
+        for (Extent child : children) {
+            boolean infinite = child.isInfinite();
+            if (infinite != smallest.isInfinite() ? !infinite : child.getVolume() < smallest.getVolume()) {
+                smallest = child;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Returns an upper bound of the volume of this intersection, the smallest of the volumes of its children and its bounds.
+     *
+     * @return upper bound of the volume of this intersection
+     */
+    @Override
+    public double getVolume() {
+        double volume = getBounds().getVolume();
+        for (Extent child : children) {
+            volume = Math.min(volume, child.getVolume());
+        }
+        return volume;
+    }
+
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds != null ? bounds : computeBounds();
+    }
+
+    @Override
+    public boolean isInfinite() {
+        for (Extent child : children) {
+            if (!child.isInfinite()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Vector getRandomLocation(Random random) {
+        Extent smallest = getSmallestChild();
+        ExtentBounds bounds = getBounds();
+        for (int i = 0; i < CompositeExtents.RANDOM_LOCATION_ATTEMPTS; i++) {
+            Vector location = smallest.getRandomLocation(random);
+            if (containsExcept(smallest, bounds, location.getX(), location.getY(), location.getZ())) {
+                return location;
+            }
+        }
+        throw new IllegalStateException("Could not find a random location within the intersection.");
+    }
+
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        Extent smallest = getSmallestChild();
+        ExtentBounds bounds = getBounds();
+        smallest.forEachBlock((x, y, z) -> {
+            if (containsExcept(smallest, bounds, x + 0.5, y + 0.5, z + 0.5)) {
+                action.accept(x, y, z);
+            }
+        });
+    }
+
+    @Override
+    public Iterator<BlockVector> iterator() {
+        Extent smallest = getSmallestChild();
+        ExtentBounds bounds = getBounds();
+        return Iterators.filter(smallest.iterator(), bv -> containsExcept(smallest, bounds, bv.getX() + 0.5, bv.getY() + 0.5, bv.getZ() + 0.5));
+    }
+
+    /**
+     * Returns an immutable collection of {@link Extent}s that this intersection consists of.
+     *
+     * @return immutable collection of extents
+     */
+    public Collection<Extent> getExtents() {
+        return extents;
+    }
+}
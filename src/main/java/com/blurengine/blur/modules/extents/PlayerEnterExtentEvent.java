@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.events.players.BlurPlayerEvent;
+import com.blurengine.blur.session.BlurPlayer;
+
+import org.bukkit.event.HandlerList;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents an event that is called when a {@link BlurPlayer} enters an {@link Extent} tracked by an {@link ExtentMembershipTracker}.
+ */
+public class PlayerEnterExtentEvent extends BlurPlayerEvent {
+
+    private final Extent extent;
+
+    public PlayerEnterExtentEvent(@Nonnull BlurPlayer blurPlayer, @Nonnull Extent extent) {
+        super(blurPlayer);
+        this.extent = Preconditions.checkNotNull(extent, "extent cannot be null.");
+    }
+
+    @Nonnull
+    public Extent getExtent() {
+        return extent;
+    }
+
+    private static final HandlerList handlerList = new HandlerList();
+
+    @Override
+    public HandlerList getHandlers() { return handlerList; }
+
+    public static HandlerList getHandlerList() { return handlerList; }
+}
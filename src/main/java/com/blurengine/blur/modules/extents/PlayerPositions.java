@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.session.BlurPlayer;
+import com.blurengine.blur.session.BlurSession;
+
+import org.bukkit.Location;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents a reusable snapshot of the positions of {@link BlurPlayer}s, laid out as primitive arrays for
+ * {@link Extent#containsAll(double[], double[], double[], int, BitSet)}. A snapshot taken once per tick can be tested against any number of
+ * extents, e.g.:
+ * <pre>
+ * positions.update(getSession());
+ * zone.containsAll(positions, inZone);
+ * for (int i = inZone.nextSetBit(0); i &gt;= 0; i = inZone.nextSetBit(i + 1)) {
+ *     BlurPlayer blurPlayer = positions.getPlayer(i);
+ * }
+ * </pre>
+ * The arrays are only reallocated when the number of players grows.
+ */
+public final class PlayerPositions {
+
+    private BlurPlayer[] players = new BlurPlayer[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] zs = new double[0];
+    private int size;
+
+    /**
+     * Snapshots the positions of the players of a {@link BlurSession}.
+     *
+     * @param session session whose players to snapshot
+     *
+     * @return this instance for chaining
+     */
+    public PlayerPositions update(@Nonnull BlurSession session) {
+        Preconditions.checkNotNull(session, "session cannot be null.");
+        return update(session.getPlayers().values());
+    }
+
+    /**
+     * Snapshots the positions of the given players.
+     *
+     * @param players players to snapshot
+     *
+     * @return this instance for chaining
+     */
+    public PlayerPositions update(@Nonnull Collection<BlurPlayer> players) {
+        Preconditions.checkNotNull(players, "players cannot be null.");
+        // The size is only a hint, weakly keyed collections may yield fewer players than reported.
+        ensureCapacity(players.size());
+        int i = 0;
+        for (BlurPlayer blurPlayer : players) {
+            if (i == this.xs.length) {
+                ensureCapacity(i + 1);
+            }
+            Location location = blurPlayer.getReusableLocation();
+            this.players[i] = blurPlayer;
+            this.xs[i] = location.getX();
+            this.ys[i] = location.getY();
+            this.zs[i] = location.getZ();
+            i++;
+        }
+        // Don't hold on to players that are no longer part of the snapshot.
+        if (i < this.size) {
+            Arrays.fill(this.players, i, this.size, null);
+        }
+        this.size = i;
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.xs.length) {
+            capacity = Math.max(capacity, this.xs.length * 2);
+            this.players = Arrays.copyOf(this.players, capacity);
+            this.xs = Arrays.copyOf(this.xs, capacity);
+            this.ys = Arrays.copyOf(this.ys, capacity);
+            this.zs = Arrays.copyOf(this.zs, capacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public BlurPlayer getPlayer(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return players[index];
+    }
+
+    double[] getXs() {
+        return xs;
+    }
+
+    double[] getYs() {
+        return ys;
+    }
+
+    double[] getZs() {
+        return zs;
+    }
+}
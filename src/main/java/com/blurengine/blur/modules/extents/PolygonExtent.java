@@ -0,0 +1,275 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.modules.extents.ExtentDirection.NullExtentDirection;
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Represents a prism {@link Extent}, a polygon on the x-z plane extruded from a minimum to a maximum y. Points are contained by the even-odd rule,
+ * the polygon's edges on the minimum x and z sides are inside and the ones on the maximum sides are outside, like a {@link CuboidExtent}.
+ * <p />
+ * On construction the polygon is split into slabs between consecutive distinct vertex z coordinates, each holding the edges spanning it sorted by
+ * x. Testing a point is then a binary search for its slab and another for the number of edges to its left, O(log n) in the number of vertices.
+ */
+public class PolygonExtent implements Extent, DirectionalExtent {
+
+    private final double[] xs;
+    private final double[] zs;
+    private final double minY;
+    private final double maxY;
+    private ExtentDirection direction = NullExtentDirection.INSTANCE;
+    private final ExtentBounds bounds;
+    private final double area;
+
+    // Edge i runs between vertex i - 1 and vertex i, its x at z is xs[start] + edgeSlope[i] * (z - zs[start]) where start is the vertex with the
+    // lower z. Edges are only tested from their lower vertex, so anchoring there keeps the x exact at the one vertex it is tested at.
+    private final int[] edgeStart;
+    private final double[] edgeSlope;
+    // Distinct vertex z coordinates, ascending. Slab i spans from slabZ[i] (inclusive) to slabZ[i + 1] (exclusive).
+    private final double[] slabZ;
+    // Edges spanning each slab, sorted by x.
+    private final int[][] slabEdges;
+    // Whether the edges of each slab keep their order throughout the slab, false if any of them cross within it.
+    private final boolean[] slabOrdered;
+
+    public PolygonExtent(@Nonnull List<Vector> points, double minY, double maxY) {
+        this(points, minY, maxY, null);
+    }
+
+    /**
+     * Constructs a polygon prism.
+     *
+     * @param points vertices of the polygon in order, only their x and z are used
+     * @param minY minimum y, inclusive
+     * @param maxY maximum y, exclusive
+     * @param direction direction of this extent, nullable
+     */
+    public PolygonExtent(@Nonnull List<Vector> points, double minY, double maxY, @Nullable ExtentDirection direction) {
+        Preconditions.checkNotNull(points, "points cannot be null.");
+        Preconditions.checkArgument(points.size() >= 3, "polygon must have at least 3 points.");
+        Preconditions.checkArgument(minY <= maxY, "minY must not be greater than maxY.");
+        int n = points.size();
+        this.xs = new double[n];
+        this.zs = new double[n];
+        double minX = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        double doubleArea = 0;
+        for (int i = 0; i < n; i++) {
+            Vector point = Preconditions.checkNotNull(points.get(i), "points cannot contain null.");
+            xs[i] = point.getX();
+            zs[i] = point.getZ();
+            minX = Math.min(minX, xs[i]);
+            minZ = Math.min(minZ, zs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxZ = Math.max(maxZ, zs[i]);
+        }
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            doubleArea += xs[j] * zs[i] - xs[i] * zs[j];
+        }
+        this.minY = minY;
+        this.maxY = maxY;
+        this.area = Math.abs(doubleArea) / 2;
+        this.bounds = ExtentBounds.of(minX, minY, minZ, maxX, maxY, maxZ);
+        if (direction != null) {
+            this.direction = direction;
+        }
+
+        this.edgeStart = new int[n];
+        this.edgeSlope = new double[n];
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            edgeStart[i] = zs[i] < zs[j] ? i : j;
+            if (zs[i] != zs[j]) { // Horizontal edges never cross a line of constant z.
+                edgeSlope[i] = (xs[i] - xs[j]) / (zs[i] - zs[j]);
+            }
+        }
+        this.slabZ = Arrays.stream(zs).sorted().distinct().toArray();
+        this.slabEdges = new int[slabZ.length - 1][];
+        this.slabOrdered = new boolean[slabEdges.length];
+        for (int slab = 0; slab < slabEdges.length; slab++) {
+            double fromZ = slabZ[slab], toZ = slabZ[slab + 1], midZ = (fromZ + toZ) / 2;
+            List<Integer> edges = new ArrayList<>();
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                if (Math.min(zs[i], zs[j]) <= fromZ && Math.max(zs[i], zs[j]) >= toZ) {
+                    edges.add(i);
+                }
+            }
+            edges.sort((a, b) -> Double.compare(getEdgeX(a, midZ), getEdgeX(b, midZ)));
+            int[] sorted = edges.stream().mapToInt(Integer::intValue).toArray();
+            boolean ordered = true;
+            for (int k = 1; k < sorted.length && ordered; k++) {
+                ordered = getEdgeX(sorted[k - 1], fromZ) <= getEdgeX(sorted[k], fromZ) && getEdgeX(sorted[k - 1], toZ) <= getEdgeX(sorted[k], toZ);
+            }
+            slabEdges[slab] = sorted;
+            slabOrdered[slab] = ordered;
+        }
+    }
+
+    private double getEdgeX(int edge, double z) {
+        int start = edgeStart[edge];
+        return xs[start] + edgeSlope[edge] * (z - zs[start]);
+    }
+
+    /**
+     * Returns the slab containing z, or -1 if z is outside of all slabs.
+     */
+    private int getSlab(double z) {
+        int index = Arrays.binarySearch(slabZ, z);
+        int slab = index >= 0 ? index : -index - 2;
+        return slab >= 0 && slab < slabEdges.length ? slab : -1;
+    }
+
+    @Override
+    public boolean contains(double x, double y, double z) {
+        if (y < minY || y >= maxY || !bounds.contains(x, y, z)) {
+            return false;
+        }
+        int slab = getSlab(z);
+        if (slab < 0) {
+            return false;
+        }
+        int[] edges = slabEdges[slab];
+        int left;
+        if (slabOrdered[slab]) {
+            // Number of edges at or to the left of x.
+            int low = 0, high = edges.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (getEdgeX(edges[mid], z) <= x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            left = low;
+        } else {
+            left = 0;
+            for (int edge : edges) {
+                if (getEdgeX(edge, z) <= x) {
+                    left++;
+                }
+            }
+        }
+        return (left & 1) == 1;
+    }
+
+    @Override
+    public double getVolume() {
+        return area * (maxY - minY);
+    }
+
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public boolean isInfinite() {
+        return false;
+    }
+
+    @Override
+    public Vector getRandomLocation(Random random) {
+        for (int i = 0; i < CompositeExtents.RANDOM_LOCATION_ATTEMPTS; i++) {
+            double x = bounds.getMinX() + random.nextDouble() * (bounds.getMaxX() - bounds.getMinX());
+            double y = minY + random.nextDouble() * (maxY - minY);
+            double z = bounds.getMinZ() + random.nextDouble() * (bounds.getMaxZ() - bounds.getMinZ());
+            if (contains(x, y, z)) {
+                return new Vector(x, y, z);
+            }
+        }
+        throw new IllegalStateException("Could not find a random location within the polygon.");
+    }
+
+    /**
+     * Performs the given action for each block whose centre is contained by this polygon. Blocks are found a row at a time, by pairing up the x of
+     * the edges crossing the row's centre, rather than testing every block.
+     *
+     * @param action action to perform on each block
+     */
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        int fromY = (int) Math.ceil(minY - 0.5), toY = (int) Math.ceil(maxY - 0.5);
+        int fromZ = (int) Math.ceil(bounds.getMinZ() - 0.5), toZ = (int) Math.ceil(bounds.getMaxZ() - 0.5);
+        double[] crossings = new double[xs.length];
+        for (int z = fromZ; z < toZ; z++) {
+            double centreZ = z + 0.5;
+            int slab = getSlab(centreZ);
+            if (slab < 0) {
+                continue;
+            }
+            int[] edges = slabEdges[slab];
+            for (int i = 0; i < edges.length; i++) {
+                crossings[i] = getEdgeX(edges[i], centreZ);
+            }
+            if (!slabOrdered[slab]) {
+                Arrays.sort(crossings, 0, edges.length);
+            }
+            for (int i = 0; i + 1 < edges.length; i += 2) {
+                // Blocks whose centre x lies within [crossings[i], crossings[i + 1]).
+                int fromX = (int) Math.ceil(crossings[i] - 0.5), toX = (int) Math.ceil(crossings[i + 1] - 0.5);
+                for (int x = fromX; x < toX; x++) {
+                    for (int y = fromY; y < toY; y++) {
+                        action.accept(x, y, z);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public Iterator<BlockVector> iterator() {
+        List<BlockVector> blocks = new ArrayList<>();
+        forEachBlock((x, y, z) -> blocks.add(new BlockVector(x, y, z)));
+        return blocks.iterator();
+    }
+
+    @NotNull
+    @Override
+    public ExtentDirection getDirection() {
+        return direction;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public int getPoints() {
+        return xs.length;
+    }
+}
@@ -16,10 +16,12 @@
 
 package com.blurengine.blur.modules.extents
 
-import com.blurengine.blur.utils.add
+import com.blurengine.blur.session.BlurSession
+import com.blurengine.blur.utils.IntTriConsumer
 import com.supaham.commons.bukkit.utils.ImmutableVector
 import org.bukkit.entity.Entity
 import org.bukkit.util.BlockVector
+import org.bukkit.util.NumberConversions
 import org.bukkit.util.Vector
 import java.util.Random
 
@@ -31,31 +33,85 @@ interface RemoteExtent : Extent
 /**
  * Represents a [RemoteExtent] abstract implementation that uses an initial and offset vector. See [EntityAttachedExtent] for an example
  * implementation.
+ *
+ * When a [session] is given, the offset is resolved at most once per tick of the session (see [BlurSession.getCurrentTick]), otherwise it is
+ * resolved on every call.
  */
-abstract class AbstractRemoteExtent(val extent: Extent) : RemoteExtent {
+abstract class AbstractRemoteExtent @JvmOverloads constructor(val extent: Extent, val session: BlurSession? = null) : RemoteExtent {
     abstract val initial: ImmutableVector
     abstract val offset: ImmutableVector
 
+    private val resolved = Vector()
+    private var resolvedTick = -1
+    private var diffX = 0.0
+    private var diffY = 0.0
+    private var diffZ = 0.0
+    private var blockDiffX = 0
+    private var blockDiffY = 0
+    private var blockDiffZ = 0
+
+    /**
+     * Resolves the current [offset] into the given vector. Implementations that can read their offset without allocating should override this.
+     */
+    protected open fun resolveOffset(resolved: Vector) {
+        val offset = offset
+        resolved.setX(offset.x).setY(offset.y).setZ(offset.z)
+    }
+
+    /**
+     * Updates the cached differences between [offset] and [initial] unless they were already resolved this tick.
+     */
+    private fun refresh() {
+        val tick = session?.currentTick ?: -1
+        if (tick >= 0 && tick == resolvedTick) {
+            return
+        }
+        resolvedTick = tick
+        resolveOffset(resolved)
+        val initial = initial
+        diffX = resolved.x - initial.x
+        diffY = resolved.y - initial.y
+        diffZ = resolved.z - initial.z
+        blockDiffX = NumberConversions.floor(resolved.x) - initial.blockX
+        blockDiffY = NumberConversions.floor(resolved.y) - initial.blockY
+        blockDiffZ = NumberConversions.floor(resolved.z) - initial.blockZ
+    }
+
     override fun contains(x: Double, y: Double, z: Double): Boolean {
-        val diffX = offset.x - initial.x
-        val diffY = offset.y - initial.y
-        val diffZ = offset.z - initial.z
+        refresh()
         return extent.contains(x - diffX, y - diffY, z - diffZ)
     }
 
     // TODO maybe?
     override fun getVolume(): Double = extent.volume
 
+    override fun getBounds(): ExtentBounds {
+        refresh()
+        return extent.bounds.translate(diffX, diffY, diffZ)
+    }
+
+    override fun isInfinite(): Boolean = extent.isInfinite
+
     override fun getRandomLocation(random: Random?): Vector {
-        val diffX = offset.x - initial.x
-        val diffY = offset.y - initial.y
-        val diffZ = offset.z - initial.z
+        refresh()
         val result = extent.getRandomLocation(random)
-        result.add(diffX, diffY, diffZ)
+        result.setX(result.x + diffX).setY(result.y + diffY).setZ(result.z + diffZ)
         return result
     }
 
+    override fun forEachBlock(action: IntTriConsumer) {
+        refresh()
+        val diffX = blockDiffX
+        val diffY = blockDiffY
+        val diffZ = blockDiffZ
+        extent.forEachBlock { x, y, z -> action.accept(x + diffX, y + diffY, z + diffZ) }
+    }
+
     override fun iterator(): MutableIterator<BlockVector> {
+        refresh()
+        val diffX = blockDiffX
+        val diffY = blockDiffY
+        val diffZ = blockDiffZ
         val it = extent.iterator()
 
         return object : MutableIterator<BlockVector> {
@@ -64,12 +120,8 @@ abstract class AbstractRemoteExtent(val extent: Extent) : RemoteExtent {
             }
 
             override fun next(): BlockVector {
-                val diffX = offset.blockX - initial.blockX
-                val diffY = offset.blockY - initial.blockY
-                val diffZ = offset.blockZ - initial.blockZ
                 val next = it.next()
-                next.add(x = diffX, y = diffY, z = diffZ)
-                return next
+                return BlockVector(next.blockX + diffX, next.blockY + diffY, next.blockZ + diffZ)
             }
 
             override fun remove() {
@@ -80,11 +132,13 @@ abstract class AbstractRemoteExtent(val extent: Extent) : RemoteExtent {
 }
 
 /**
- * Implementation of [RemoteExtent] using attachment to [Entity]. Every time [offset] is called, the current location of the entity is returned.
+ * Implementation of [RemoteExtent] using attachment to [Entity]. The offset is the current location of the entity, read at most once per tick if
+ * a [session] is given.
  * 
  * Note: You must maintain this reference if the entity is no longer existent.
  */
-class EntityAttachedExtent(val attachedTo: Entity, extent: Extent) : AbstractRemoteExtent(extent) {
+class EntityAttachedExtent @JvmOverloads constructor(val attachedTo: Entity, extent: Extent, session: BlurSession? = null)
+    : AbstractRemoteExtent(extent, session) {
 
     override val initial = ImmutableVector(attachedTo.location.toVector())
     // Single instance for all location calls
@@ -95,4 +149,9 @@ class EntityAttachedExtent(val attachedTo: Entity, extent: Extent) : AbstractRem
             attachedTo.getLocation(_location)
             return ImmutableVector(_location.x, _location.y, _location.z)
         }
+
+    override fun resolveOffset(resolved: Vector) {
+        attachedTo.getLocation(_location)
+        resolved.setX(_location.x).setY(_location.y).setZ(_location.z)
+    }
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.NumberConversions;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Represents an {@link Extent} wrapping another extent, rotated by a yaw around a pivot and then translated. The transform may be updated at any
+ * time, e.g. every tick for moving platforms, through {@link #setTransform(double, double, double, double)} without allocating.
+ * <p />
+ * The inverse transform is precomputed whenever the transform changes, so {@link #contains(double, double, double)} is a handful of multiplies
+ * followed by the wrapped extent's test. Yaws that are multiples of 90 degrees are exact, and keep the block grid intact if the pivot is at the
+ * centre of a block and the translation is whole blocks.
+ */
+public class TransformedExtent implements MutableExtent {
+
+    private final Extent extent;
+    private final double pivotX;
+    private final double pivotZ;
+
+    private double translateX;
+    private double translateY;
+    private double translateZ;
+    private double yaw;
+
+    // Inverse transform: local x = cos * dX + sin * dZ + pivotX, local z = cos * dZ - sin * dX + pivotZ, where dX and dZ are relative to the
+    // translated pivot.
+    private double cos = 1;
+    private double sin;
+    private double originX;
+    private double originZ;
+    private boolean quarterTurn = true;
+    // Whether block centres map onto block centres, see forEachBlock.
+    private boolean gridAligned;
+    private ExtentBounds bounds;
+
+    /**
+     * Constructs a transformed extent rotating around the centre of the block at the centre of the given extent's bounds.
+     */
+    public TransformedExtent(@Nonnull Extent extent, double translateX, double translateY, double translateZ, double yaw) {
+        this(extent, getDefaultPivot(extent), translateX, translateY, translateZ, yaw);
+    }
+
+    public TransformedExtent(@Nonnull Extent extent, @Nonnull Vector pivot, double translateX, double translateY, double translateZ, double yaw) {
+        this.extent = Preconditions.checkNotNull(extent, "extent cannot be null.");
+        Preconditions.checkNotNull(pivot, "pivot cannot be null.");
+        this.pivotX = pivot.getX();
+        this.pivotZ = pivot.getZ();
+        setTransform(translateX, translateY, translateZ, yaw);
+    }
+
+    private static Vector getDefaultPivot(Extent extent) {
+        ExtentBounds bounds = extent.getBounds();
+        if (bounds.isEmpty() || bounds.isInfinite()) {
+            return new Vector(0.5, 0, 0.5);
+        }
+        return new Vector(Math.floor((bounds.getMinX() + bounds.getMaxX()) / 2) + 0.5, 0,
+            Math.floor((bounds.getMinZ() + bounds.getMaxZ()) / 2) + 0.5);
+    }
+
+    /**
+     * Sets the transform of this extent.
+     *
+     * @param translateX x translation, applied after rotating
+     * @param translateY y translation
+     * @param translateZ z translation, applied after rotating
+     * @param yaw clockwise rotation around the pivot in degrees
+     */
+    public void setTransform(double translateX, double translateY, double translateZ, double yaw) {
+        this.translateX = translateX;
+        this.translateY = translateY;
+        this.translateZ = translateZ;
+        if (this.yaw != yaw) {
+            this.yaw = yaw;
+            double normalized = ((yaw % 360) + 360) % 360;
+            this.quarterTurn = normalized % 90 == 0;
+            if (this.quarterTurn) {
+                int turns = (int) (normalized / 90);
+                this.cos = turns == 0 ? 1 : turns == 2 ? -1 : 0;
+                this.sin = turns == 1 ? 1 : turns == 3 ? -1 : 0;
+            } else {
+                double radians = Math.toRadians(normalized);
+                this.cos = Math.cos(radians);
+                this.sin = Math.sin(radians);
+            }
+        }
+        this.originX = pivotX + translateX;
+        this.originZ = pivotZ + translateZ;
+        // Quarter turns are exact, so the block grid is kept if the centre of any one block maps back to a block centre.
+        this.gridAligned = this.quarterTurn && translateY == Math.floor(translateY)
+            && isBlockCentre(cos * (0.5 - originX) + sin * (0.5 - originZ) + pivotX)
+            && isBlockCentre(cos * (0.5 - originZ) - sin * (0.5 - originX) + pivotZ);
+        this.bounds = null;
+    }
+
+    private static boolean isBlockCentre(double d) {
+        return d - 0.5 == Math.floor(d - 0.5);
+    }
+
+    public void setTranslation(double translateX, double translateY, double translateZ) {
+        setTransform(translateX, translateY, translateZ, this.yaw);
+    }
+
+    public void setYaw(double yaw) {
+        setTransform(this.translateX, this.translateY, this.translateZ, yaw);
+    }
+
+    @Override
+    public boolean contains(double x, double y, double z) {
+        if (!getBounds().contains(x, y, z)) {
+            return false;
+        }
+        double dX = x - originX;
+        double dZ = z - originZ;
+        return extent.contains(cos * dX + sin * dZ + pivotX, y - translateY, cos * dZ - sin * dX + pivotZ);
+    }
+
+    /**
+     * Returns the volume of the wrapped extent, which a rotation and translation preserve.
+     *
+     * @return volume of the wrapped extent
+     */
+    @Override
+    public double getVolume() {
+        return extent.getVolume();
+    }
+
+    /**
+     * Returns the bounds of the transformed bounds of the wrapped extent. The bounds are recomputed when they're first needed after the transform
+     * changes.
+     *
+     * @return bounds of this extent
+     */
+    @Nonnull
+    @Override
+    public ExtentBounds getBounds() {
+        if (this.bounds == null || !UnionExtent.hasFixedBounds(extent)) {
+            this.bounds = computeBounds(extent.getBounds());
+        }
+        return this.bounds;
+    }
+
+    private ExtentBounds computeBounds(ExtentBounds local) {
+        if (local.isEmpty() || local.isInfinite()) {
+            return local;
+        }
+        double minX = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 4; corner++) {
+            double dX = ((corner & 1) == 0 ? local.getMinX() : local.getMaxX()) - pivotX;
+            double dZ = ((corner & 2) == 0 ? local.getMinZ() : local.getMaxZ()) - pivotZ;
+            double x = cos * dX - sin * dZ + originX;
+            double z = sin * dX + cos * dZ + originZ;
+            minX = Math.min(minX, x);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxZ = Math.max(maxZ, z);
+        }
+        return ExtentBounds.of(minX, local.getMinY() + translateY, minZ, maxX, local.getMaxY() + translateY, maxZ);
+    }
+
+    @Override
+    public boolean isInfinite() {
+        return extent.isInfinite();
+    }
+
+    @Override
+    public Vector getRandomLocation(Random random) {
+        Vector location = extent.getRandomLocation(random);
+        double dX = location.getX() - pivotX;
+        double dZ = location.getZ() - pivotZ;
+        return location.setX(cos * dX - sin * dZ + originX).setY(location.getY() + translateY).setZ(sin * dX + cos * dZ + originZ);
+    }
+
+    /**
+     * Performs the given action for each block of this extent, being every block whose centre is contained. For quarter turns that keep the block
+     * grid, the blocks of the wrapped extent are mapped directly, otherwise every block within the bounds of this extent is tested.
+     *
+     * @param action action to perform on each block
+     */
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        if (gridAligned) {
+            extent.forEachBlock((x, y, z) -> {
+                double dX = x + 0.5 - pivotX;
+                double dZ = z + 0.5 - pivotZ;
+                action.accept(NumberConversions.floor(cos * dX - sin * dZ + originX), NumberConversions.floor(y + 0.5 + translateY),
+                    NumberConversions.floor(sin * dX + cos * dZ + originZ));
+            });
+            return;
+        }
+        ExtentBounds bounds = getBounds();
+        Preconditions.checkState(!bounds.isInfinite(), "Cannot iterate an infinite extent.");
+        if (bounds.isEmpty()) {
+            return;
+        }
+        int minX = NumberConversions.floor(bounds.getMinX()), minY = NumberConversions.floor(bounds.getMinY());
+        int minZ = NumberConversions.floor(bounds.getMinZ());
+        for (int x = minX; x < bounds.getMaxX(); x++) {
+            for (int z = minZ; z < bounds.getMaxZ(); z++) {
+                for (int y = minY; y < bounds.getMaxY(); y++) {
+                    if (contains(x + 0.5, y + 0.5, z + 0.5)) {
+                        action.accept(x, y, z);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public Iterator<BlockVector> iterator() {
+        List<BlockVector> blocks = new ArrayList<>();
+        forEachBlock((x, y, z) -> blocks.add(new BlockVector(x, y, z)));
+        return blocks.iterator();
+    }
+
+    @Override
+    public MutableExtent mutable() {
+        return this;
+    }
+
+    public Extent getExtent() {
+        return extent;
+    }
+
+    public double getTranslateX() {
+        return translateX;
+    }
+
+    public double getTranslateY() {
+        return translateY;
+    }
+
+    public double getTranslateZ() {
+        return translateZ;
+    }
+
+    public double getYaw() {
+        return yaw;
+    }
+}
@@ -16,24 +16,39 @@
 
 package com.blurengine.blur.modules.extents;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import com.blurengine.blur.utils.BlockKeys;
+import com.blurengine.blur.utils.IntTriConsumer;
+import com.blurengine.blur.utils.LongHashSet;
 import com.supaham.commons.utils.CollectionUtils;
 
 import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
 import java.util.Random;
 
+import javax.annotation.Nonnull;
+
 /**
  * Represents a Union of {@link Extent}s which helps for grouping multiple Extents in one. 
  */
 public class UnionExtent implements Extent {
 
     private Collection<Extent> extents;
+    private final Extent[] children;
+    /*
+     * Bounds of each child, null for children whose bounds may change, such as mutable and remote extents, which are asked for their bounds when
+     * needed. The union bounds are only cached if no child's bounds may change.
+     */
+    private final ExtentBounds[] childBounds;
+    private final ExtentBounds bounds;
 
     public UnionExtent(Extent... extents) {
         this(Arrays.asList(extents));
@@ -41,66 +56,168 @@ public class UnionExtent implements Extent {
 
     public UnionExtent(Collection<Extent> extents) {
         this.extents = Collections.unmodifiableCollection(extents);
+        this.children = extents.toArray(new Extent[0]);
+        this.childBounds = new ExtentBounds[children.length];
+        boolean fixed = true;
+        for (int i = 0; i < children.length; i++) {
+            if (hasFixedBounds(children[i])) {
+                childBounds[i] = children[i].getBounds();
+            } else {
+                fixed = false;
+            }
+        }
+        this.bounds = fixed ? computeBounds() : null;
+    }
+
+    /**
+     * Returns whether the bounds of an {@link Extent} can never change.
+     */
+    public static boolean hasFixedBounds(Extent extent) {
+        if (extent instanceof MutableExtent || extent instanceof RemoteExtent) {
+            return false;
+        } else if (extent instanceof UnionExtent) {
+            return ((UnionExtent) extent).bounds != null;
+        } else if (extent instanceof IntersectionExtent) {
+            return ((IntersectionExtent) extent).bounds != null;
+        } else if (extent instanceof DifferenceExtent) {
+            return ((DifferenceExtent) extent).bounds != null;
+        }
+        return true;
+    }
+
+    private ExtentBounds computeBounds() {
+        ExtentBounds result = ExtentBounds.EMPTY;
+        for (int i = 0; i < children.length; i++) {
+            result = result.union(getChildBounds(i));
+        }
+        return result;
+    }
+
+    private ExtentBounds getChildBounds(int index) {
+        ExtentBounds childBounds = this.childBounds[index];
+        return childBounds != null ? childBounds : children[index].getBounds();
     }
 
     @Override
     public boolean contains(double x, double y, double z) {
-        for (Extent extent : extents) {
-            if (extent.contains(x, y, z)) {
+        if (bounds != null && !bounds.contains(x, y, z)) {
+            return false;
+        }
+        for (int i = 0; i < children.length; i++) {
+            ExtentBounds childBounds = this.childBounds[i];
+            if ((childBounds == null || childBounds.contains(x, y, z)) && children[i].contains(x, y, z)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Tests many points against this union, by testing all of them against each child in turn and combining the results. Children are skipped
+     * once every point is known to be contained.
+     */
     @Override
-    public double getVolume() {
-        return -1; // TODO write code.
+    public void containsAll(@Nonnull double[] xs, @Nonnull double[] ys, @Nonnull double[] zs, int n, @Nonnull BitSet out) {
+        Extent.checkContainsAllArgs(xs, ys, zs, n, out);
+        out.clear(0, n);
+        BitSet childOut = new BitSet(n);
+        for (int i = 0; i < children.length && out.nextClearBit(0) < n; i++) {
+            children[i].containsAll(xs, ys, zs, n, childOut);
+            out.or(childOut);
+        }
     }
 
+    /**
+     * Returns the volume of this union. This is exact if the bounds of the children don't overlap, touching is fine, otherwise overlapping children
+     * are counted once each, capped at the volume of this union's bounds.
+     *
+     * @return volume of this union
+     */
     @Override
-    public Vector getRandomLocation(Random random) {
-        return CollectionUtils.getRandomElement(extents).getRandomLocation(random);
+    public double getVolume() {
+        double volume = 0;
+        for (Extent child : children) {
+            volume += child.getVolume();
+        }
+        return hasOverlappingChildren(false) ? Math.min(volume, getBounds().getVolume()) : volume;
     }
 
-    /*
-         * Possibly bad practice but next() depends on hasNext() being called.
-         */
+    /**
+     * Returns whether the bounds of any two children of this union overlap, in which case they may cover the same space. Block visits also count
+     * touching bounds, as a block centre on the shared face may be contained by both children.
+     */
+    private boolean hasOverlappingChildren(boolean touching) {
+        for (int i = 0; i < children.length; i++) {
+            ExtentBounds childBounds = getChildBounds(i);
+            for (int j = i + 1; j < children.length; j++) {
+                ExtentBounds otherBounds = getChildBounds(j);
+                if (touching ? childBounds.intersects(otherBounds) : childBounds.overlaps(otherBounds)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nonnull
     @Override
-    public Iterator<BlockVector> iterator() {
-        return new Iterator<BlockVector>() {
-            private final Iterator<Extent> extentIterator;
-            private Iterator<BlockVector> curIt;
+    public ExtentBounds getBounds() {
+        return bounds != null ? bounds : computeBounds();
+    }
 
-            {
-                extentIterator = extents.iterator();
+    @Override
+    public boolean isInfinite() {
+        for (Extent child : children) {
+            if (child.isInfinite()) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            @Override
-            public boolean hasNext() {
-                // Nullify current iterator if it complete.
-                if (curIt != null && !curIt.hasNext()) {
-                    curIt = null;
-                }
+    @Override
+    public Vector getRandomLocation(Random random) {
+        return CollectionUtils.getRandomElement(extents).getRandomLocation(random);
+    }
 
-                if (curIt == null) {
-                    if (!extentIterator.hasNext()) {
-                        return false;
-                    }
-                    curIt = extentIterator.next().iterator();
-                }
-                return curIt.hasNext();
+    /**
+     * Performs the given action for each block of this union's children. Blocks covered by more than one child are only visited once.
+     *
+     * @param action action to perform on each block
+     */
+    @Override
+    public void forEachBlock(@Nonnull IntTriConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        if (!hasOverlappingChildren(true)) {
+            for (Extent child : children) {
+                child.forEachBlock(action);
             }
-
-            @Override
-            public BlockVector next() {
-                BlockVector next = curIt.next();
-                if (next == null) {
-                    throw new NoSuchElementException();
-                }
-                return next;
+            return;
+        }
+        LongHashSet visited = new LongHashSet();
+        IntTriConsumer deduplicated = (x, y, z) -> {
+            if (visited.add(BlockKeys.of(x, y, z))) {
+                action.accept(x, y, z);
             }
         };
+        for (Extent child : children) {
+            child.forEachBlock(deduplicated);
+        }
+    }
+
+    /**
+     * Returns an {@link Iterator} over the blocks of this union's children. Blocks covered by more than one child are only returned once.
+     *
+     * @return block iterator
+     */
+    @Override
+    public Iterator<BlockVector> iterator() {
+        Iterator<BlockVector> it = Iterators.concat(Iterators.transform(Iterators.forArray(children), Extent::iterator));
+        if (!hasOverlappingChildren(true)) {
+            return it;
+        }
+        LongHashSet visited = new LongHashSet();
+        return Iterators.filter(it, bv -> visited.add(BlockKeys.of(bv.getBlockX(), bv.getBlockY(), bv.getBlockZ())));
     }
 
     /**
@@ -22,9 +22,14 @@ import com.blurengine.blur.framework.ModuleLoader
 import com.blurengine.blur.modules.extents.Extent
 import com.blurengine.blur.modules.extents.ExtentManager
 import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.AutoCircle
+import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Bitmap
 import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Block
 import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Cuboid
 import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Cylinder
+import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Difference
+import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Intersection
+import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Polygon
+import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Transformed
 import com.blurengine.blur.modules.extents.serializer.ExtentSerializers.Union
 import com.blurengine.blur.utils.getSharedComponent
 import com.google.common.base.Preconditions
@@ -36,12 +41,16 @@ import pluginbase.config.serializers.SerializerSet
 import java.lang.reflect.InvocationTargetException
 import java.util.ArrayList
 import java.util.HashMap
+import java.util.regex.Pattern
+import java.util.regex.PatternSyntaxException
 
 /**
  * Represents an [Extent] serializer. Keep in mind this is for single extents. For a [List] of extents, see [ExtentList].
  */
 class ExtentSerializer(private val moduleLoader: ModuleLoader) : BlurSerializer<Extent> {
     private val serializers: Map<String, ExtentTypeSerializer<*>>
+    // Raw definitions of the extents defined with an id.
+    private val definitions = HashMap<String, Any>()
 
     val manager: ExtentManager
         get() = this.moduleLoader.moduleManager.extentManager
@@ -117,6 +126,9 @@ class ExtentSerializer(private val moduleLoader: ModuleLoader) : BlurSerializer<
             extent = manager.getExtentByString(extentId)
         } else { // Extent was defined, add it.
             manager.addExtent(id, extent)
+            if (id != null) {
+                definitions[id] = map
+            }
 
             // Extent specified to be protected
             if (protect) {
@@ -126,6 +138,27 @@ class ExtentSerializer(private val moduleLoader: ModuleLoader) : BlurSerializer<
         return extent
     }
 
+    /**
+     * Returns the raw definition of the extent defined with the given id, or null if there is none.
+     */
+    fun getDefinition(id: String): Any? = definitions[id]
+
+    /**
+     * Returns the ids of the defined extents a string refers to, following the same rules as [ExtentManager.getExtentByString]: the id itself if
+     * it is defined, otherwise the ids it matches as a regex, in order.
+     */
+    fun getReferencedIds(reference: String): List<String> {
+        if (reference in definitions) {
+            return listOf(reference)
+        }
+        val pattern = try {
+            Pattern.compile(reference)
+        } catch (e: PatternSyntaxException) {
+            return emptyList()
+        }
+        return definitions.keys.filter { pattern.matcher(it).matches() }.sorted()
+    }
+
     companion object {
         private val RESERVED_SERIALIZERS = arrayOf("cuboid", "union", "cylinder", "block")
         private val EXTENT_SERIALIZERS = HashMap<String, Class<out ExtentTypeSerializer<*>>>()
@@ -136,6 +169,11 @@ class ExtentSerializer(private val moduleLoader: ModuleLoader) : BlurSerializer<
             EXTENT_SERIALIZERS.put("cylinder", Cylinder::class.java)
             EXTENT_SERIALIZERS.put("block", Block::class.java)
             EXTENT_SERIALIZERS.put("auto-circle", AutoCircle::class.java)
+            EXTENT_SERIALIZERS.put("bitmap", Bitmap::class.java)
+            EXTENT_SERIALIZERS.put("intersection", Intersection::class.java)
+            EXTENT_SERIALIZERS.put("difference", Difference::class.java)
+            EXTENT_SERIALIZERS.put("transformed", Transformed::class.java)
+            EXTENT_SERIALIZERS.put("polygon", Polygon::class.java)
         }
 
         /**
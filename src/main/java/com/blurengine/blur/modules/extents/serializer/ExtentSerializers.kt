@@ -17,16 +17,34 @@
 package com.blurengine.blur.modules.extents.serializer
 
 import com.blurengine.blur.modules.extents.AutoCircleExtent
+import com.blurengine.blur.modules.extents.BitmapExtent
 import com.blurengine.blur.modules.extents.BlockExtent
 import com.blurengine.blur.modules.extents.CuboidExtent
 import com.blurengine.blur.modules.extents.CylinderExtent
+import com.blurengine.blur.modules.extents.DifferenceExtent
+import com.blurengine.blur.modules.extents.Extent
 import com.blurengine.blur.modules.extents.ExtentDirection
 import com.blurengine.blur.modules.extents.ExtentDirection.NullExtentDirection
+import com.blurengine.blur.modules.extents.IntersectionExtent
+import com.blurengine.blur.modules.extents.PolygonExtent
+import com.blurengine.blur.modules.extents.TransformedExtent
 import com.blurengine.blur.modules.extents.UnionExtent
+import com.blurengine.blur.session.WorldBlurSession
 import com.google.common.base.Preconditions
 import com.supaham.commons.bukkit.utils.ImmutableVector
+import com.supaham.commons.bukkit.utils.SerializationUtils
 import org.bukkit.util.BlockVector
+import org.bukkit.util.Vector
 import pluginbase.config.serializers.SerializerSet
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.logging.Level
 
 internal class ExtentSerializers {
 
@@ -44,6 +62,30 @@ internal class ExtentSerializers {
         }
     }
 
+    internal class Intersection(parent: ExtentSerializer) : ExtentTypeSerializer<IntersectionExtent>(parent) {
+
+        @Throws(IllegalArgumentException::class)
+        override fun deserialize(serialized: Any?, wantedType: Class<*>, serializerSet: SerializerSet): IntersectionExtent {
+            Preconditions.checkArgument(serialized is List<*> && serialized.isNotEmpty(), "intersection must be a list of extents.")
+            val extents = (serialized as List<*>).map { parentSerializer.deserialize(it, wantedType, serializerSet) }
+            return IntersectionExtent(extents)
+        }
+    }
+
+    /**
+     * Deserializes a list of extents, where every extent after the first is subtracted from the first.
+     */
+    internal class Difference(parent: ExtentSerializer) : ExtentTypeSerializer<DifferenceExtent>(parent) {
+
+        @Throws(IllegalArgumentException::class)
+        override fun deserialize(serialized: Any?, wantedType: Class<*>, serializerSet: SerializerSet): DifferenceExtent {
+            Preconditions.checkArgument(serialized is List<*> && serialized.size >= 2,
+                    "difference must be a list of a base extent followed by the extents to subtract.")
+            val extents = (serialized as List<*>).map { parentSerializer.deserialize(it, wantedType, serializerSet) }
+            return DifferenceExtent(extents[0]!!, extents.subList(1, extents.size))
+        }
+    }
+
     internal class Cuboid(parent: ExtentSerializer) : ExtentTypeSerializer<CuboidExtent>(parent) {
 
         @Throws(IllegalArgumentException::class)
@@ -113,4 +155,110 @@ internal class ExtentSerializers {
             return AutoCircleExtent(base, points, radius, offsetRadians, direction)
         }
     }
+
+    /**
+     * Deserializes a polygon prism. Each point is either "x,z" or a vector whose y is ignored.
+     */
+    internal class Polygon(parent: ExtentSerializer) : ExtentTypeSerializer<PolygonExtent>(parent) {
+
+        override fun deserialize(`object`: Any): PolygonExtent {
+            val map = `object` as Map<*, *>
+            val points = map["points"]
+            Preconditions.checkArgument(points is List<*> && points.size >= 3, "polygon points must be a list of at least 3 points.")
+            val vectors = (points as List<*>).map {
+                val parts = it.toString().split(",")
+                if (parts.size == 2) Vector(parts[0].trim().toDouble(), 0.0, parts[1].trim().toDouble()) else getVector(it.toString())
+            }
+            val direction = deserializeExtentDirection(map)
+            return PolygonExtent(vectors, getDouble(map, "min-y"), getDouble(map, "max-y"), direction)
+        }
+    }
+
+    internal class Transformed(parent: ExtentSerializer) : ExtentTypeSerializer<TransformedExtent>(parent) {
+
+        override fun deserialize(`object`: Any): TransformedExtent {
+            val map = `object` as Map<*, *>
+            Preconditions.checkArgument(map["extent"] != null, "transformed must define an extent to transform.")
+            val extent = parentSerializer.deserialize(map["extent"], Extent::class.java, SerializationUtils.SERIALIZER_SET)!!
+            val translate = if (map["translate"] != null) getVector(map, "translate") else Vector()
+            val yaw = map["yaw"]?.run { toString().toDouble() } ?: 0.0
+            return if (map["pivot"] != null) {
+                TransformedExtent(extent, getVector(map, "pivot"), translate.x, translate.y, translate.z, yaw)
+            } else {
+                TransformedExtent(extent, translate.x, translate.y, translate.z, yaw)
+            }
+        }
+    }
+
+    /**
+     * Bakes an extent into a [BitmapExtent]. The optional `file`, relative to the map directory, caches the baked bitmap run-length encoded, so
+     * that later loads of the map skip baking. The cache is rebaked whenever the `extent` definition changes.
+     */
+    internal class Bitmap(parent: ExtentSerializer) : ExtentTypeSerializer<BitmapExtent>(parent) {
+
+        override fun deserialize(`object`: Any): BitmapExtent {
+            val map = `object` as Map<*, *>
+            val source = map["extent"]
+            Preconditions.checkArgument(source != null, "bitmap must define an extent to bake.")
+            // Always deserialize the source, even when cached, as it may define ids and protected extents of its own.
+            val extent = parentSerializer.deserialize(source, Extent::class.java, SerializationUtils.SERIALIZER_SET)!!
+            val file = map["file"]?.let { getCacheFile(it.toString()) }
+            val checksum = fingerprint(source, HashSet())
+
+            if (file != null && file.isFile) {
+                try {
+                    DataInputStream(BufferedInputStream(FileInputStream(file))).use {
+                        if (it.readInt() == BITMAP_MAGIC && it.readInt() == BITMAP_VERSION && it.readInt() == checksum) {
+                            return BitmapExtent.read(it)
+                        }
+                    }
+                } catch (e: IOException) {
+                    parentSerializer.manager.logger.log(Level.WARNING, "Failed to read bitmap extent from ${file.path}", e)
+                }
+            }
+
+            val bitmap = BitmapExtent.bake(extent)
+            if (file != null) {
+                try {
+                    DataOutputStream(BufferedOutputStream(FileOutputStream(file))).use {
+                        it.writeInt(BITMAP_MAGIC)
+                        it.writeInt(BITMAP_VERSION)
+                        it.writeInt(checksum)
+                        bitmap.write(it)
+                    }
+                } catch (e: IOException) {
+                    parentSerializer.manager.logger.log(Level.WARNING, "Failed to write bitmap extent to ${file.path}", e)
+                }
+            }
+            return bitmap
+        }
+
+        // Cache files are kept in the directory of the map, as the world a session plays in is a throwaway copy of it.
+        private fun getCacheFile(path: String): File? {
+            val session = parentSerializer.manager.session
+            if (session !is WorldBlurSession) {
+                parentSerializer.manager.logger.warning("Not caching bitmap extent to $path, only sessions loaded from a map can cache.")
+                return null
+            }
+            return File(session.blurMap.mapDirectory, path)
+        }
+
+        /*
+         * Hashes a raw extent definition. References to other extents are followed to their own definitions, so that editing a referenced extent
+         * also invalidates the cache.
+         */
+        private fun fingerprint(definition: Any?, seen: MutableSet<String>): Int = when (definition) {
+            is Map<*, *> -> definition.entries.sortedBy { it.key.toString() }
+                .fold(1) { hash, e -> 31 * hash + (e.key.toString().hashCode() xor fingerprint(e.value, seen)) }
+            is List<*> -> definition.fold(1) { hash, e -> 31 * hash + fingerprint(e, seen) }
+            is String -> parentSerializer.getReferencedIds(definition).filter { seen.add(it) }
+                .fold(definition.hashCode()) { hash, id -> 31 * hash + fingerprint(parentSerializer.getDefinition(id), seen) }
+            else -> definition?.hashCode() ?: 0
+        }
+
+        companion object {
+            private const val BITMAP_MAGIC = 0x424C424D // BLBM
+            private const val BITMAP_VERSION = 1
+        }
+    }
 }
@@ -30,6 +30,7 @@ import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.ModuleParseException
 import com.blurengine.blur.framework.SerializedModule
 import com.blurengine.blur.framework.WorldModule
+import com.blurengine.blur.modules.SetBlocksModule
 import com.blurengine.blur.modules.lobby.LobbyModule.LobbyData
 import com.blurengine.blur.modules.maploading.MapLoadException
 import com.blurengine.blur.modules.maploading.MapLoaderModule
@@ -39,6 +40,7 @@ import com.blurengine.blur.modules.spawns.SpawnsModule
 import com.blurengine.blur.modules.stages.StageChangeData
 import com.blurengine.blur.session.BlurPlayer
 import com.blurengine.blur.session.BlurSession
+import com.blurengine.blur.session.ResetProfile
 import com.blurengine.blur.text.dsl.TextComponentBuilder
 import com.supaham.commons.utils.StringUtils
 import net.kyori.text.format.TextColor
@@ -85,7 +87,7 @@ class LobbyModule(moduleManager: ModuleManager, private val data: LobbyData) : W
     @EventHandler
     fun onPlayerJoinSession(event: PlayerJoinSessionEvent) {
         if (isSession(event)) {
-            event.blurPlayer.reset()
+            event.blurPlayer.reset(data.reset)
             if (this.childrenSessions.isEmpty()) {
                 checkAndStart()
             }
@@ -155,12 +157,14 @@ class LobbyModule(moduleManager: ModuleManager, private val data: LobbyData) : W
             childSession.enable()
 
             // Add current lobby players to the new session immediately
-            players.forEach(childSession::addPlayer)
+            childSession.addPlayers(players)
 
+            // Wait for block fills of the new session before starting it.
+            val start = Runnable { SetBlocksModule.whenComplete(childSession) { childSession.start() } }
             if (!data.delay.isZero) {
-                newUnregisteredTask { childSession.start() }.delay(data.delay).build()
+                newUnregisteredTask(start).delay(data.delay).build()
             } else {
-                childSession.start()
+                start.run()
             }
             this.childrenSessions.add(childSession)
         } catch (e: MapLoadException) {
@@ -180,6 +184,7 @@ class LobbyModule(moduleManager: ModuleManager, private val data: LobbyData) : W
         @Name("required-players")
         val requiredPlayers = 1
         val games = 1
+        val reset = ResetProfile()
 
         @Throws(ModuleParseException::class)
         override fun parse(moduleManager: ModuleManager, serialized: SerializedModule): Module {
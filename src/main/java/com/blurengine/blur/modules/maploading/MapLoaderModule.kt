@@ -24,6 +24,7 @@ import com.blurengine.blur.framework.ModuleInfo
 import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.ModuleParseException
 import com.blurengine.blur.framework.SerializedModule
+import com.blurengine.blur.modules.SetBlocksModule
 import com.blurengine.blur.modules.filters.Filter
 import com.blurengine.blur.modules.maploading.MapLoaderModule.MapLoaderData
 import com.blurengine.blur.session.WorldBlurSession
@@ -84,7 +85,9 @@ class MapLoaderModule(moduleManager: ModuleManager, val rootDirectory: File, map
         try {
             val map = nextMap()
             val newSession = createSessionFromDirectory(map)
-            newSession.start()
+            newSession.load()
+            newSession.enable()
+            SetBlocksModule.whenComplete(newSession) { newSession.start() }
             logger.fine("Next map " + map.id)
         } catch (e: MapLoadException) {
             e.printStackTrace()
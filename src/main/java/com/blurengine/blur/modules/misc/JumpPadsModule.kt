@@ -16,13 +16,14 @@
 
 package com.blurengine.blur.modules.misc
 
-import com.blurengine.blur.events.players.PlayerMoveBlockEvent
 import com.blurengine.blur.framework.Module
 import com.blurengine.blur.framework.ModuleData
 import com.blurengine.blur.framework.ModuleInfo
 import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.SerializedModule
+import com.blurengine.blur.framework.SessionScoped
 import com.blurengine.blur.modules.extents.Extent
+import com.blurengine.blur.modules.extents.PlayerEnterExtentEvent
 import com.blurengine.blur.modules.misc.JumpPadsModule.JumpPadsModuleData
 import com.blurengine.blur.utils.withMultiply
 import com.supaham.commons.bukkit.utils.RelativeVector
@@ -30,12 +31,22 @@ import org.bukkit.event.EventHandler
 import pluginbase.config.annotation.Name
 
 @ModuleInfo(name = "JumpPads", dataClass = JumpPadsModuleData::class)
+@SessionScoped
 class JumpPadsModule(moduleManager: ModuleManager, val data: JumpPadsModuleData) : Module(moduleManager) {
 
+    override fun enable() {
+        data.jumpPads.forEach { extentMembershipTracker.track(it.extent) }
+    }
+
+    override fun disable() {
+        data.jumpPads.forEach { extentMembershipTracker.untrack(it.extent) }
+    }
+
     @EventHandler
-    fun onPlayerMoveBlock(event: PlayerMoveBlockEvent) {
+    fun onPlayerEnterExtent(event: PlayerEnterExtentEvent) {
+        if (!isSession(event)) return
         for (jumpPad in data.jumpPads) {
-            if (jumpPad.extent.contains(event.blurPlayer)) {
+            if (jumpPad.extent === event.extent) {
                 val dir = event.blurPlayer.player.location.direction
                 val jumpPadData = jumpPad.velocity ?: data.velocity!!
                 event.blurPlayer.player.velocity = jumpPadData.withMultiply(dir)
@@ -22,40 +22,24 @@ import com.blurengine.blur.framework.ModuleInfo
 import com.blurengine.blur.framework.ModuleManager
 import com.blurengine.blur.framework.SerializedModule
 import com.blurengine.blur.framework.WorldModule
-import com.blurengine.blur.modules.extents.CuboidExtent
-import com.blurengine.blur.modules.extents.CylinderExtent
 import com.blurengine.blur.modules.extents.Extent
-import com.blurengine.blur.modules.extents.UnionExtent
 import com.blurengine.blur.modules.misc.SimpleParticlesModule.SimpleParticlesData
-import com.google.common.collect.ArrayListMultimap
-import com.google.common.collect.ListMultimap
 import com.supaham.commons.Enums
-import com.supaham.commons.bukkit.utils.ImmutableBlockVector
-import com.supaham.commons.bukkit.utils.ImmutableVector
-import org.bukkit.Effect
 import org.bukkit.Particle
-import org.bukkit.util.BlockVector
 import java.time.Duration
-import java.util.ArrayList
 
 @ModuleInfo(name = "SimpleParticles", dataClass = SimpleParticlesData::class)
 class SimpleParticlesModule(manager: ModuleManager, val data: SimpleParticlesData) : WorldModule(manager) {
-    private val outlines: ListMultimap<Extent, BlockVector> = ArrayListMultimap.create()
 
     init {
-        first@data.particles.forEach { pdata ->
-            outlines.putAll(pdata.extent, doExtent(pdata.extent))
+        data.particles.forEach { pdata ->
+            val extent = pdata.extent!!
+            val particle = pdata.particle!!
             newTask({
-                outlines.get(pdata.extent).forEach {
-                    world.spawnParticle(pdata.particle!!, it.toLocation(this.world), 2, 0.0, 0.0, 0.0, 0.0)
-                }
+                extent.forEachBlock { x, y, z -> world.spawnParticle(particle, x.toDouble(), y.toDouble(), z.toDouble(), 2, 0.0, 0.0, 0.0, 0.0) }
             }).interval(pdata.interval).build()
         }
     }
-    
-    fun doExtent(extent: Extent?): List<BlockVector> {
-        return extent!!.toList()
-    }
 
     class SimpleParticlesData : ModuleData {
         var particles = arrayListOf<ExtentParticles>()
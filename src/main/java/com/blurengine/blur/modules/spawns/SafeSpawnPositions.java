@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.spawns;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.modules.extents.Extent;
+import com.blurengine.blur.modules.extents.ExtentBounds;
+import com.blurengine.blur.modules.extents.UnionExtent;
+import com.blurengine.blur.utils.BlockKeys;
+import com.blurengine.blur.utils.LongHashSet;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Represents a cache of the safe standable positions of a spawn {@link Extent}. A position is safe when its block and the one above are clear and the
+ * block below is solid floor. Positions are collected the first time they are needed, after which picking one is O(1).
+ * <p />
+ * Block changes are reported through {@link #markChanged(int, int, int)}, the affected positions are rechecked on the next pick. Picked positions are
+ * also verified before being returned, which covers blocks changed without an event.
+ */
+final class SafeSpawnPositions {
+
+    // Picks give up after this many stale positions in a row and let the caller fall back.
+    private static final int MAX_PICK_ATTEMPTS = 16;
+
+    private final Extent extent;
+    private final World world;
+    // Bounds of the blocks whose changes may affect the safety of a position, from the floor below to the block above the extent.
+    private final ExtentBounds affectedBounds;
+    private final LongHashSet safe = new LongHashSet();
+    private final LongHashSet pending = new LongHashSet();
+    /*
+     * Positions to pick from, each at most once so that picks are uniform. Removed positions are only dropped from the safe set, and lazily from
+     * this array when picked, which keeps removals O(1). A stale position that becomes safe again reuses its entry. The array is rebuilt from the
+     * safe set once stale positions make up half of it.
+     */
+    private final LongHashSet listed = new LongHashSet();
+    private long[] keys = new long[16];
+    private int length;
+    private boolean built;
+
+    SafeSpawnPositions(@Nonnull Extent extent, @Nonnull World world) {
+        this.extent = Preconditions.checkNotNull(extent, "extent cannot be null.");
+        this.world = Preconditions.checkNotNull(world, "world cannot be null.");
+        ExtentBounds bounds = extent.getBounds();
+        this.affectedBounds = bounds.union(bounds.translate(0, -1, 0)).union(bounds.translate(0, 1, 0));
+    }
+
+    /**
+     * Returns whether an extent may be cached. The extent must have fixed, finite bounds of at most the given volume.
+     */
+    static boolean isCacheable(@Nonnull Extent extent, double maxVolume) {
+        ExtentBounds bounds = extent.getBounds();
+        return UnionExtent.hasFixedBounds(extent) && !bounds.isInfinite() && bounds.getVolume() <= maxVolume;
+    }
+
+    /**
+     * Returns a random safe location, centred on its block, or null if there is none.
+     *
+     * @param random random to pick with
+     *
+     * @return safe location, nullable
+     */
+    @Nullable
+    Location pick(@Nonnull Random random) {
+        if (!this.built) {
+            this.extent.forEachBlock(this::recheck);
+            this.built = true;
+        } else if (!this.pending.isEmpty()) {
+            this.pending.forEach(key -> recheck(BlockKeys.getX(key), BlockKeys.getY(key), BlockKeys.getZ(key)));
+            this.pending.clear();
+        }
+        for (int attempt = 0; attempt < MAX_PICK_ATTEMPTS && this.length > 0; attempt++) {
+            int index = random.nextInt(this.length);
+            long key = this.keys[index];
+            int x = BlockKeys.getX(key), y = BlockKeys.getY(key), z = BlockKeys.getZ(key);
+            if (this.safe.contains(key) && isSafe(this.world, x, y, z)) {
+                return new Location(this.world, x + 0.5, y, z + 0.5);
+            }
+            this.safe.remove(key);
+            this.listed.remove(key);
+            this.keys[index] = this.keys[--this.length];
+        }
+        return null;
+    }
+
+    /**
+     * Marks the positions a block change may affect for rechecking, i.e. the positions standing on, in, or below the changed block.
+     */
+    void markChanged(int x, int y, int z) {
+        if (!this.built || !this.affectedBounds.contains(x + 0.5, y + 0.5, z + 0.5)) {
+            return;
+        }
+        for (int feetY = y - 1; feetY <= y + 1; feetY++) {
+            if (this.extent.contains(x + 0.5, feetY + 0.5, z + 0.5)) {
+                this.pending.add(BlockKeys.of(x, feetY, z));
+            }
+        }
+    }
+
+    private void recheck(int x, int y, int z) {
+        long key = BlockKeys.of(x, y, z);
+        if (!isSafe(this.world, x, y, z)) {
+            this.safe.remove(key);
+        } else if (this.safe.add(key) && !this.listed.contains(key)) {
+            if (this.length > 16 && this.length >= this.safe.size() * 2) {
+                compact();
+            }
+            if (this.listed.add(key)) {
+                if (this.length == this.keys.length) {
+                    this.keys = Arrays.copyOf(this.keys, this.length * 2);
+                }
+                this.keys[this.length++] = key;
+            }
+        }
+    }
+
+    // Rebuilds the array from the safe set, dropping stale positions.
+    private void compact() {
+        this.length = 0;
+        this.listed.clear();
+        this.safe.forEach(key -> {
+            this.keys[this.length++] = key;
+            this.listed.add(key);
+        });
+    }
+
+    static boolean isSafe(@Nonnull World world, int x, int y, int z) {
+        if (y < 1 || y + 1 >= world.getMaxHeight()) {
+            return false;
+        }
+        return isClear(world.getBlockAt(x, y, z)) && isClear(world.getBlockAt(x, y + 1, z)) && isFloor(world.getBlockAt(x, y - 1, z).getType());
+    }
+
+    private static boolean isClear(Block block) {
+        Material type = block.getType();
+        return !type.isSolid() && !block.isLiquid() && type != Material.FIRE;
+    }
+
+    private static boolean isFloor(Material type) {
+        return type.isSolid() && type != Material.CACTUS && type != Material.MAGMA_BLOCK;
+    }
+}
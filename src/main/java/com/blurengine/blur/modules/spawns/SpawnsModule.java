@@ -36,21 +36,39 @@ import com.blurengine.blur.modules.extents.UnionExtent;
 import com.blurengine.blur.modules.spawns.SpawnsModule.SpawnsData;
 import com.blurengine.blur.modules.spawns.serializer.SpawnSerializer;
 import com.blurengine.blur.session.BlurPlayer;
+import com.blurengine.blur.session.ResetProfile;
 import com.supaham.commons.utils.CollectionUtils;
+import com.supaham.commons.utils.RandomUtils;
 import com.supaham.commons.utils.StringUtils;
 import com.supaham.commons.utils.WeakSet;
 
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -63,6 +81,9 @@ import pluginbase.config.annotation.SerializeWith;
 @ModuleInfo(name = "Spawns", dataClass = SpawnsData.class)
 public class SpawnsModule extends WorldModule {
 
+    // Extents with larger bounds aren't worth scanning for safe positions.
+    private static final double MAX_SAFE_SPAWN_VOLUME = 65536;
+
     public final SpawnsData data;
     /**
      * Contains a list of players respawning forcefully by this module. See spawnPlayer method with spigot respawn call.
@@ -70,16 +91,26 @@ public class SpawnsModule extends WorldModule {
     private final WeakSet<Player> validRespawningPlayers = new WeakSet<>();
     public final List<SpawnStrategy> spawnStrategies = new ArrayList<>();
     private final SpawnStrategy fallbackSpawnStrategy;
+    // Safe positions of each spawn extent, see getSpawnLocation.
+    private final Map<Extent, SafeSpawnPositions> safeSpawnPositions = new IdentityHashMap<>();
 
     public static Location getLocationFromSpawn(Spawn spawn, World world, Entity entity) {
         Preconditions.checkNotNull(spawn, "spawn cannot be null.");
         Preconditions.checkNotNull(world, "world cannot be null.");
         Preconditions.checkNotNull(entity, "entity cannot be null.");
+        Extent extent = pickExtent(spawn);
+        return applyDirection(extent, extent.getRandomLocation().toLocation(world), entity);
+    }
+
+    private static Extent pickExtent(Spawn spawn) {
         Extent extent = spawn.getExtent();
         if (extent instanceof UnionExtent) {
             extent = CollectionUtils.getRandomElement(((UnionExtent) extent).getExtents());
         }
-        Location location = extent.getRandomLocation().toLocation(world);
+        return extent;
+    }
+
+    private static Location applyDirection(Extent extent, Location location, Entity entity) {
         if (extent instanceof DirectionalExtent) {
             ((DirectionalExtent) extent).getDirection().applyTo(location, entity);
         }
@@ -90,6 +121,38 @@ public class SpawnsModule extends WorldModule {
         super(moduleManager);
         this.data = data;
         fallbackSpawnStrategy = new DefaultSpawnStrategy(this::getSpawns, data.defaultSpawn);
+        if (data.safeSpawns) {
+            addListener(new BlockChangeListener());
+        }
+    }
+
+    /**
+     * Returns a location within a {@link Spawn} to spawn an entity at. Unlike {@link #getLocationFromSpawn(Spawn, World, Entity)}, the location is
+     * picked from the cached safe standable positions of the spawn's extent. Extents with no safe position, or that can't be cached, fall back to
+     * any random location.
+     *
+     * @param spawn spawn to get a location from
+     * @param entity entity to spawn
+     *
+     * @return spawn location
+     */
+    @Nonnull
+    public Location getSpawnLocation(@Nonnull Spawn spawn, @Nonnull Entity entity) {
+        Preconditions.checkNotNull(spawn, "spawn cannot be null.");
+        Preconditions.checkNotNull(entity, "entity cannot be null.");
+        Extent extent = pickExtent(spawn);
+        Location location = null;
+        if (data.safeSpawns) {
+            SafeSpawnPositions positions = this.safeSpawnPositions.computeIfAbsent(extent,
+                e -> SafeSpawnPositions.isCacheable(e, MAX_SAFE_SPAWN_VOLUME) ? new SafeSpawnPositions(e, getWorld()) : null);
+            if (positions != null) {
+                location = positions.pick(RandomUtils.getRandom());
+            }
+        }
+        if (location == null) {
+            location = extent.getRandomLocation().toLocation(getWorld());
+        }
+        return applyDirection(extent, location, entity);
     }
 
     public Collection<Spawn> getSpawns() {
@@ -105,7 +168,7 @@ public class SpawnsModule extends WorldModule {
                 if (spawn == null) {
                     spawn = getNextSpawnForEntity(p.getPlayer());
                 }
-                p.respawn(getLocationFromSpawn(spawn, getWorld(), p.getPlayer()));
+                p.respawn(getSpawnLocation(spawn, p.getPlayer()));
             })).delay(0).build();
         }
     }
@@ -129,12 +192,20 @@ public class SpawnsModule extends WorldModule {
             if (event.getSpawnLocation() == null) {
                 Player player = event.getBlurPlayer().getPlayer();
                 Spawn spawn = getNextSpawnForEntity(player);
-                Location spawnLocation = getLocationFromSpawn(spawn, getWorld(), player);
+                Location spawnLocation = getSpawnLocation(spawn, player);
                 event.setSpawnLocation(spawnLocation);
             }
         }
     }
 
+    // Reset first, so that whatever other modules hand out for this respawn is kept.
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void resetOnPlayerRespawn(BlurPlayerRespawnEvent event) {
+        if (isSession(event) && data.resetOnRespawn != null) {
+            event.getBlurPlayer().reset(data.resetOnRespawn);
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlurPlayerRespawn(BlurPlayerRespawnEvent event) {
         if (isSession(event)) {
@@ -151,7 +222,7 @@ public class SpawnsModule extends WorldModule {
         }
         BlurPlayer blurPlayer = getSession().getPlayer(event.getPlayer());
         if (isSession(blurPlayer.getSession())) {
-            Location location = getLocationFromSpawn(getNextSpawnForEntity(event.getPlayer()), getWorld(), event.getPlayer());
+            Location location = getSpawnLocation(getNextSpawnForEntity(event.getPlayer()), event.getPlayer());
             getLogger().finer("Spawning %s at %s", blurPlayer.getName(), location);
             event.setRespawnLocation(location);
         }
@@ -170,7 +241,7 @@ public class SpawnsModule extends WorldModule {
             this.validRespawningPlayers.remove(blurPlayer.getPlayer());
         }
 
-        Location location = getLocationFromSpawn(spawn, getWorld(), blurPlayer.getPlayer());
+        Location location = getSpawnLocation(spawn, blurPlayer.getPlayer());
         spawnPlayer(blurPlayer, location);
     }
 
@@ -206,6 +277,92 @@ public class SpawnsModule extends WorldModule {
         return foundSpawn;
     }
 
+    private void markChanged(Block block) {
+        if (block.getWorld() != getWorld()) {
+            return;
+        }
+        for (SafeSpawnPositions positions : this.safeSpawnPositions.values()) {
+            positions.markChanged(block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    // Marks blocks moved by a piston, on both sides as the direction of a retraction isn't consistent across versions.
+    private void markMoved(Block piston, List<Block> blocks, BlockFace direction) {
+        markChanged(piston.getRelative(direction));
+        markChanged(piston.getRelative(direction.getOppositeFace()));
+        for (Block block : blocks) {
+            markChanged(block);
+            markChanged(block.getRelative(direction));
+            markChanged(block.getRelative(direction.getOppositeFace()));
+        }
+    }
+
+    /**
+     * Reports block changes to the cached safe spawn positions.
+     */
+    private final class BlockChangeListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockBreak(BlockBreakEvent event) {
+            markChanged(event.getBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockPlace(BlockPlaceEvent event) {
+            markChanged(event.getBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockBurn(BlockBurnEvent event) {
+            markChanged(event.getBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockFade(BlockFadeEvent event) {
+            markChanged(event.getBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockForm(BlockFormEvent event) {
+            markChanged(event.getBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockFromTo(BlockFromToEvent event) {
+            markChanged(event.getToBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onLeavesDecay(LeavesDecayEvent event) {
+            markChanged(event.getBlock());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onPistonExtend(BlockPistonExtendEvent event) {
+            markMoved(event.getBlock(), event.getBlocks(), event.getDirection());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onPistonRetract(BlockPistonRetractEvent event) {
+            markMoved(event.getBlock(), event.getBlocks(), event.getDirection());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onBlockExplode(BlockExplodeEvent event) {
+            event.blockList().forEach(SpawnsModule.this::markChanged);
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onEntityExplode(EntityExplodeEvent event) {
+            event.blockList().forEach(SpawnsModule.this::markChanged);
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+            markChanged(event.getBlock());
+        }
+    }
+
     public static final class SpawnsData implements ModuleData {
 
         public static final String DEFAULT_SPAWN = "default-spawn";
@@ -218,6 +375,17 @@ public class SpawnsModule extends WorldModule {
         private Spawn spawnOnStart;
         @Name("handle-late-join-spawn")
         public boolean handleLateJoinSpawn = true;
+        /**
+         * Profile to reset players to when they respawn, null to leave players untouched.
+         */
+        @Name("reset-on-respawn")
+        public ResetProfile resetOnRespawn;
+        /**
+         * Whether to spawn players on safe standable positions of spawns rather than anywhere within them. Off by default, as players are then
+         * placed at the centre of a block on its floor, instead of the exact location a spawn defines.
+         */
+        @Name("safe-spawns")
+        public boolean safeSpawns;
 
         @Override
         public Module parse(ModuleManager moduleManager, SerializedModule serialized) throws ModuleParseException {
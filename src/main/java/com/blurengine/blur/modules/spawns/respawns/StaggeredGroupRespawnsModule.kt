@@ -27,6 +27,7 @@ import com.blurengine.blur.framework.SerializedModule
 import com.blurengine.blur.framework.WorldModule
 import com.blurengine.blur.framework.ticking.Tick
 import com.blurengine.blur.modules.extents.Extent
+import com.blurengine.blur.modules.extents.PlayerPositions
 import com.blurengine.blur.modules.spawns.SpawnsModule
 import com.blurengine.blur.modules.spawns.respawns.StaggeredGroupRespawnsModule.StaggeredGroupRespawnsData
 import com.blurengine.blur.modules.teams.BlurTeam
@@ -44,12 +45,15 @@ import org.bukkit.event.EventHandler
 import org.bukkit.event.EventPriority
 import pluginbase.config.annotation.Name
 import java.time.Duration
+import java.util.BitSet
 import java.util.WeakHashMap
 
 @ModuleInfo(name = "StaggeredGroupRespawns", dataClass = StaggeredGroupRespawnsData::class)
 class StaggeredGroupRespawnsModule(moduleManager: ModuleManager, val data: StaggeredGroupRespawnsData) : WorldModule(moduleManager) {
 
     val theDead = WeakHashMap<BlurPlayer, Long>()
+    private val deadPositions = PlayerPositions()
+    private val inDeathbox = BitSet()
     private val spawnerBossBar by lazy { SpawnerBossBar() }
 
     override fun load() {
@@ -112,12 +116,19 @@ class StaggeredGroupRespawnsModule(moduleManager: ModuleManager, val data: Stagg
 
         val theDeadTeams = HashMultimap.create<BlurTeam, BlurPlayer>()
 
-        // Remove invalid/offline players
-        for (blurPlayer in theDead.keys.toMutableSet()) {
-            if (data.deathbox?.contains(blurPlayer) == false) {
-                sendToDeathbox(blurPlayer)
+        // Send back players that left the deathbox, testing all of them at once.
+        data.deathbox?.let { deathbox ->
+            deadPositions.update(theDead.keys)
+            deathbox.containsAll(deadPositions, inDeathbox)
+            for (i in 0 until deadPositions.size()) {
+                if (!inDeathbox[i]) {
+                    sendToDeathbox(deadPositions.getPlayer(i))
+                }
             }
+        }
 
+        // Remove invalid/offline players
+        for (blurPlayer in theDead.keys.toMutableSet()) {
             if (!session.players.values.any { it.session == session }) {
                 destroyPlayer(blurPlayer)
                 continue
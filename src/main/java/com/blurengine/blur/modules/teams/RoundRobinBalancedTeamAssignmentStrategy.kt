@@ -29,4 +29,18 @@ class RoundRobinBalancedTeamAssignmentStrategy(override val teams: Supplier<Coll
                 .map { it.first }
         return minPlayerTeams.first()
     }
+
+    override fun getTeams(blurPlayers: Collection<BlurPlayer>): Map<BlurPlayer, BlurTeam> {
+        val teams = teams.get()
+        if (teams.isEmpty()) return emptyMap()
+        // Track sizes locally so the whole batch is balanced without re-reading every team per player.
+        val playerCounts = teams.associateTo(LinkedHashMap()) { it to it.playerCount }
+        val result = LinkedHashMap<BlurPlayer, BlurTeam>(blurPlayers.size)
+        for (blurPlayer in blurPlayers) {
+            val smallest = playerCounts.entries.minBy { it.value }!!
+            result[blurPlayer] = smallest.key
+            smallest.setValue(smallest.value + 1)
+        }
+        return result
+    }
 }
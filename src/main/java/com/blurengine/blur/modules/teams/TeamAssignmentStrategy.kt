@@ -28,4 +28,19 @@ interface TeamAssignmentStrategy {
     val teams: Supplier<Collection<BlurTeam>>
 
     fun getTeam(blurPlayer: BlurPlayer): BlurTeam?
+
+    /**
+     * Returns the [BlurTeam] of each [BlurPlayer] in a batch of players joining together. Players this strategy can't place are absent from the
+     * returned map.
+     *
+     * The default implementation calls [getTeam] for each player without applying earlier results, so strategies that depend on team sizes
+     * should override this to account for the players ahead of them in the batch.
+     */
+    fun getTeams(blurPlayers: Collection<BlurPlayer>): Map<BlurPlayer, BlurTeam> {
+        val result = LinkedHashMap<BlurPlayer, BlurTeam>(blurPlayers.size)
+        for (blurPlayer in blurPlayers) {
+            getTeam(blurPlayer)?.let { result[blurPlayer] = it }
+        }
+        return result
+    }
 }
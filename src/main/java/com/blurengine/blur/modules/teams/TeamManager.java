@@ -23,6 +23,7 @@ import com.blurengine.blur.framework.SharedComponent;
 import com.blurengine.blur.session.RootBlurSession;
 import com.blurengine.blur.events.players.PlayerJoinSessionEvent;
 import com.blurengine.blur.events.players.PlayerLeaveSessionEvent;
+import com.blurengine.blur.events.players.PlayersJoinSessionEvent;
 import com.blurengine.blur.framework.Component;
 import com.blurengine.blur.framework.InternalModule;
 import com.blurengine.blur.framework.Module;
@@ -188,29 +189,50 @@ public class TeamManager extends Module implements SupervisorContext {
         return assignmentStrategies;
     }
 
-    @EventHandler
-    public void onPlayerJoinSession(PlayerJoinSessionEvent event) {
-        // TODO make initial team setting optional. E.g. if they game has already started, set them to spectators only.
-        if (isSession(event.getSession()) && !(getSession() instanceof RootBlurSession)) {
-            BlurTeam foundTeam = null;
-            for (TeamAssignmentStrategy assignmentStrategy : this.assignmentStrategies) {
-                BlurTeam team = assignmentStrategy.getTeam(event.getBlurPlayer());
-                if (team != null) {
-                    foundTeam = team;
-                    break;
-                }
+    /**
+     * Assigns teams to the given players, consulting {@link #getAssignmentStrategies()} in order for the whole batch before falling back to
+     * round robin balancing for any players left without a team.
+     *
+     * @param blurPlayers players to assign teams to
+     */
+    public void assignTeams(@Nonnull Collection<BlurPlayer> blurPlayers) {
+        Preconditions.checkNotNull(blurPlayers, "blurPlayers cannot be null.");
+        List<BlurPlayer> remaining = new ArrayList<>(blurPlayers);
+        for (TeamAssignmentStrategy assignmentStrategy : this.assignmentStrategies) {
+            if (remaining.isEmpty()) {
+                return;
             }
+            Map<BlurPlayer, BlurTeam> found = assignmentStrategy.getTeams(remaining);
+            found.forEach(this::addAssignedPlayer);
+            remaining.removeIf(found::containsKey);
+        }
 
-            if (foundTeam == null) {
-                if (this.assignmentStrategies.size() > 0) {
-                    getLogger().finer("Failed to find player from assignmentStrategies");
-                }
-                foundTeam = fallbackAssignmentStrategy.getTeam(event.getBlurPlayer());
+        if (!remaining.isEmpty()) {
+            if (this.assignmentStrategies.size() > 0) {
+                getLogger().finer("Failed to find team for %d player(s) from assignmentStrategies", remaining.size());
             }
+            fallbackAssignmentStrategy.getTeams(remaining).forEach(this::addAssignedPlayer);
+        }
+    }
+
+    private void addAssignedPlayer(BlurPlayer blurPlayer, BlurTeam blurTeam) {
+        getLogger().fine("Adding %s to team %s with size %s", blurPlayer.getDisplayName(), blurTeam.getId(), blurTeam.getPlayerCount());
+        blurTeam.addPlayer(blurPlayer);
+    }
 
-            getLogger().fine("Adding %s to team %s with size %s", event.getBlurPlayer().getDisplayName(),foundTeam.getId(),
-                foundTeam.getPlayerCount());
-            foundTeam.addPlayer(event.getBlurPlayer());
+    @EventHandler
+    public void onPlayerJoinSession(PlayerJoinSessionEvent event) {
+        // TODO make initial team setting optional. E.g. if they game has already started, set them to spectators only.
+        // Batched joins have already been assigned in onPlayersJoinSession.
+        if (isSession(event.getSession()) && !(getSession() instanceof RootBlurSession) && !event.isBatched()) {
+            assignTeams(Collections.singletonList(event.getBlurPlayer()));
+        }
+    }
+
+    @EventHandler
+    public void onPlayersJoinSession(PlayersJoinSessionEvent event) {
+        if (isSession(event.getSession()) && !(getSession() instanceof RootBlurSession)) {
+            assignTeams(event.getBlurPlayers());
         }
     }
 
@@ -23,6 +23,7 @@ import com.blurengine.blur.framework.Module;
 import com.blurengine.blur.framework.ModuleInfo;
 import com.blurengine.blur.framework.ModuleManager;
 import com.blurengine.blur.framework.metadata.playerdata.PlayerData;
+import com.blurengine.blur.framework.metadata.playerdata.SessionPortable;
 import com.blurengine.blur.inventory.InventoryLayout;
 
 import java.time.Instant;
@@ -38,14 +39,18 @@ public class BlurCoreModule extends Module {
         getPlayerMetadataCreator().registerClass(BlurPlayerCoreData.class);
     }
 
-    public static final class BlurPlayerCoreData implements PlayerData {
+    /**
+     * Core data of a {@link BlurPlayer}. Instances are {@link SessionPortable}, so the same instance (and its {@link InventoryLayout}) follows the
+     * player from game to game, with the per-session stats reset on each reuse.
+     */
+    public static final class BlurPlayerCoreData implements PlayerData, SessionPortable {
 
         private final BlurPlayer blurPlayer;
         private boolean alive;
         private InventoryLayout inventoryLayout;
         private int kills;
         private int deaths;
-        private final Instant sessionJoinTime;
+        private Instant sessionJoinTime;
 
         public BlurPlayerCoreData(@Nonnull BlurPlayer blurPlayer) {
             Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.");
@@ -56,6 +61,19 @@ public class BlurCoreModule extends Module {
             sessionJoinTime = Instant.now();
         }
 
+        @Override
+        public void reuse(@Nonnull BlurSession session) {
+            this.alive = false;
+            this.kills = 0;
+            this.deaths = 0;
+            this.sessionJoinTime = Instant.now();
+            if (this.inventoryLayout.getInventory() == blurPlayer.getPlayer().getInventory()) {
+                this.inventoryLayout.clear();
+            } else {
+                this.inventoryLayout = new InventoryLayout(blurPlayer.getPlayer().getInventory());
+            }
+        }
+
         public boolean isAlive() {
             return alive;
         }
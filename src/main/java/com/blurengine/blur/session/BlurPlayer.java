@@ -23,22 +23,30 @@ import com.blurengine.blur.events.players.BlurPlayerRespawnEvent;
 import com.blurengine.blur.events.players.PlayerDamagePlayerEvent;
 import com.blurengine.blur.events.players.PlayerKilledEvent;
 import com.blurengine.blur.framework.metadata.MetadataHolder;
+import com.blurengine.blur.framework.metadata.playerdata.SessionPortable;
 import com.blurengine.blur.inventory.InventoryLayout;
 import com.blurengine.blur.modules.filters.Filter;
 import com.blurengine.blur.session.BlurCoreModule.BlurPlayerCoreData;
 import com.supaham.commons.bukkit.players.BukkitPlayerManager;
 import com.supaham.commons.bukkit.players.CommonPlayer;
-import com.supaham.commons.bukkit.players.Players;
 
 import net.kyori.text.Component;
 import net.kyori.text.TextComponent;
 
 import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.potion.PotionEffect;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.annotation.Nonnull;
@@ -53,42 +61,126 @@ public class BlurPlayer extends CommonPlayer implements Filter, MetadataHolder {
     private final BukkitPlayerManager manager;
     BlurSession blurSession;
     private boolean quitting;
+    private final Map<Class<?>, Object> portableData = new HashMap<>();
+    private final Location locationBuffer = new Location(null, 0, 0, 0);
+    long lastBlockKey = PlayerMoveBlockEmitter.UNSET; // Maintained by PlayerMoveBlockEmitter
 
     public BlurPlayer(BukkitPlayerManager manager, @Nonnull Player player) {
         super(player);
         this.manager = Preconditions.checkNotNull(manager, "manager cannot be null.");
     }
 
+    /**
+     * Resets this player to {@link ResetProfile#DEFAULT}.
+     *
+     * @see #reset(ResetProfile)
+     */
     public void reset() {
+        reset(ResetProfile.DEFAULT);
+    }
+
+    /**
+     * Resets this player to the state described by the given {@link ResetProfile}. The player's current state is compared against the profile and
+     * only the properties that differ are applied, sparing the client packets of no-op updates.
+     *
+     * @param profile profile to reset to
+     */
+    public void reset(@Nonnull ResetProfile profile) {
+        Preconditions.checkNotNull(profile, "profile cannot be null.");
         Player player = getPlayer();
 
-        player.setItemOnCursor(null); // instead of close inventory to not close chat.
-        player.getInventory().clear();
-        player.getInventory().setArmorContents(null);
+        if (profile.isClearInventory()) {
+            if (!isEmpty(player.getItemOnCursor())) {
+                player.setItemOnCursor(null); // instead of close inventory to not close chat.
+            }
+            PlayerInventory inventory = player.getInventory();
+            for (ItemStack item : inventory.getContents()) { // Contents include armor and offhand.
+                if (!isEmpty(item)) {
+                    inventory.clear();
+                    inventory.setArmorContents(null);
+                    break;
+                }
+            }
+        }
+        if (profile.isClearPotionEffects()) {
+            for (PotionEffect effect : player.getActivePotionEffects()) {
+                player.removePotionEffect(effect.getType());
+            }
+        }
 
-        player.setExhaustion(0);
-        player.setSaturation(5);
-        player.setFoodLevel(20);
+        if (profile.getExhaustion() != null && player.getExhaustion() != profile.getExhaustion()) {
+            player.setExhaustion(profile.getExhaustion());
+        }
+        if (profile.getSaturation() != null && player.getSaturation() != profile.getSaturation()) {
+            player.setSaturation(profile.getSaturation());
+        }
+        if (profile.getFoodLevel() != null && player.getFoodLevel() != profile.getFoodLevel()) {
+            player.setFoodLevel(profile.getFoodLevel());
+        }
         // Health
-        player.resetMaxHealth();
-        player.setHealth(player.getMaxHealth());
-        // Flight/Walking speed, TODO disable flight?
-        player.setWalkSpeed(Players.DEFAULT_WALK_SPEED);
-        player.setFlySpeed(Players.DEFAULT_FLY_SPEED);
+        AttributeInstance maxHealth = player.getAttribute(Attribute.GENERIC_MAX_HEALTH);
+        if (profile.isResetMaxHealth() && maxHealth.getBaseValue() != maxHealth.getDefaultValue()) {
+            maxHealth.setBaseValue(maxHealth.getDefaultValue());
+        }
+        if (profile.isHeal() && player.getHealth() != maxHealth.getValue()) {
+            player.setHealth(maxHealth.getValue());
+        }
+        // Flight/Walking speed
+        if (profile.getWalkSpeed() != null && player.getWalkSpeed() != profile.getWalkSpeed()) {
+            player.setWalkSpeed(profile.getWalkSpeed());
+        }
+        if (profile.getFlySpeed() != null && player.getFlySpeed() != profile.getFlySpeed()) {
+            player.setFlySpeed(profile.getFlySpeed());
+        }
+        if (profile.getGameMode() != null && player.getGameMode() != profile.getGameMode()) {
+            player.setGameMode(profile.getGameMode());
+        }
+        // After game mode as changing game mode resets flight.
+        if (profile.getAllowFlight() != null && player.getAllowFlight() != profile.getAllowFlight()) {
+            player.setAllowFlight(profile.getAllowFlight());
+        }
         // Experience
-        player.setTotalExperience(0);
-        player.setExp(0);
-        player.setLevel(0);
+        if (profile.getTotalExperience() != null && player.getTotalExperience() != profile.getTotalExperience()) {
+            player.setTotalExperience(profile.getTotalExperience());
+        }
+        if (profile.getExp() != null && player.getExp() != profile.getExp()) {
+            player.setExp(profile.getExp());
+        }
+        if (profile.getLevel() != null && player.getLevel() != profile.getLevel()) {
+            player.setLevel(profile.getLevel());
+        }
         // Misc
-        player.setRemainingAir(0);
-        player.setFallDistance(0);
-        player.setFireTicks(0);
-        player.resetPlayerTime();
-        player.resetPlayerWeather();
-        player.setBedSpawnLocation(null);
+        if (profile.getRemainingAir() != null && player.getRemainingAir() != profile.getRemainingAir()) {
+            player.setRemainingAir(profile.getRemainingAir());
+        }
+        if (profile.getFallDistance() != null) {
+            player.setFallDistance(profile.getFallDistance()); // Server side only, no need to diff.
+        }
+        if (profile.getFireTicks() != null && player.getFireTicks() != profile.getFireTicks()) {
+            player.setFireTicks(profile.getFireTicks());
+        }
+        if (profile.isResetPlayerTime() && (!player.isPlayerTimeRelative() || player.getPlayerTimeOffset() != 0)) {
+            player.resetPlayerTime();
+        }
+        if (profile.isResetPlayerWeather() && player.getPlayerWeather() != null) {
+            player.resetPlayerWeather();
+        }
+        if (profile.isClearBedSpawn()) {
+            // Server side only. Not diffed as getBedSpawnLocation validates the bed block, which costs more than clearing it.
+            player.setBedSpawnLocation(null);
+        }
 
         BlurPlayerCoreData coreData = getCoreData();
-        coreData.setInventoryLayout(new InventoryLayout(player.getInventory()));
+        InventoryLayout inventoryLayout = coreData.getInventoryLayout();
+        if (inventoryLayout != null && inventoryLayout.getInventory() == player.getInventory()) {
+            inventoryLayout.clear();
+        } else {
+            coreData.setInventoryLayout(new InventoryLayout(player.getInventory()));
+        }
+    }
+
+    private static boolean isEmpty(@Nullable ItemStack item) {
+        return item == null || item.getType() == Material.AIR;
     }
 
     public void messagePrefix(String string, Object... args) {
@@ -182,6 +274,30 @@ public class BlurPlayer extends CommonPlayer implements Filter, MetadataHolder {
 
     protected void setQuitting(boolean quitting) {
         this.quitting = quitting;
+        if (quitting) {
+            this.portableData.clear();
+        }
+    }
+
+    /**
+     * Keeps a {@link SessionPortable} Player Data instance with this player after it's removed from a session, so the next session can reuse it.
+     *
+     * @param data data to keep
+     */
+    void keepPortableData(@Nonnull SessionPortable data) {
+        this.portableData.put(data.getClass(), data);
+    }
+
+    /**
+     * Removes and returns the {@link SessionPortable} instance of the given class this player carried over from its previous session.
+     *
+     * @param clazz class of the data
+     *
+     * @return the data instance, or null if this player doesn't carry one
+     */
+    @Nullable
+    public <T> T takePortableData(@Nonnull Class<T> clazz) {
+        return (T) this.portableData.remove(Preconditions.checkNotNull(clazz, "clazz cannot be null."));
     }
     /* ================================
      * >> DELEGATE METHODS
@@ -195,6 +311,42 @@ public class BlurPlayer extends CommonPlayer implements Filter, MetadataHolder {
         return getPlayer().getLocation();
     }
 
+    /**
+     * Copies this player's current location into the given {@link Location} without allocating a new one.
+     *
+     * @param into location to copy into
+     *
+     * @return {@code into}
+     */
+    @Nonnull
+    public Location getLocation(@Nonnull Location into) {
+        return getPlayer().getLocation(Preconditions.checkNotNull(into, "into cannot be null."));
+    }
+
+    /**
+     * Returns this player's current location in a {@link Location} owned by this BlurPlayer. The same instance is overwritten on every call to this
+     * method, {@link #getX()}, {@link #getY()} and {@link #getZ()}, so it must neither be modified nor kept past the current call. This should
+     * only be used in hot paths on the main thread, see {@link #getLocation()} otherwise.
+     *
+     * @return reused location of this player
+     */
+    @Nonnull
+    public Location getReusableLocation() {
+        return getPlayer().getLocation(this.locationBuffer);
+    }
+
+    public double getX() {
+        return getReusableLocation().getX();
+    }
+
+    public double getY() {
+        return getReusableLocation().getY();
+    }
+
+    public double getZ() {
+        return getReusableLocation().getZ();
+    }
+
     public Location getEyeLocation() {
         return getPlayer().getEyeLocation();
     }
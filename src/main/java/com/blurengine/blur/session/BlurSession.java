@@ -17,6 +17,9 @@
 package com.blurengine.blur.session;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 
 import com.blurengine.blur.Blur;
 import com.blurengine.blur.events.players.PlayerJoinSessionEvent;
@@ -24,6 +27,7 @@ import com.blurengine.blur.events.players.PlayerLeaveSessionEvent;
 import com.blurengine.blur.events.players.PlayerPostLeaveSessionEvent;
 import com.blurengine.blur.events.players.PlayerPreJoinSessionEvent;
 import com.blurengine.blur.events.players.PlayerSwitchSessionEvent;
+import com.blurengine.blur.events.players.PlayersJoinSessionEvent;
 import com.blurengine.blur.events.session.SessionEnableEvent;
 import com.blurengine.blur.events.session.SessionLoadEvent;
 import com.blurengine.blur.events.session.SessionPreLoadEvent;
@@ -37,6 +41,7 @@ import com.blurengine.blur.framework.SharedComponent;
 import com.blurengine.blur.framework.metadata.BasicMetadataStorage;
 import com.blurengine.blur.framework.metadata.MetadataStorage;
 import com.blurengine.blur.framework.metadata.playerdata.PlayerData;
+import com.blurengine.blur.framework.metadata.playerdata.SessionPortable;
 import com.blurengine.blur.modules.stages.StageChangeData;
 import com.supaham.commons.CommonCollectors;
 import com.supaham.commons.bukkit.TickerTask;
@@ -108,12 +113,18 @@ public abstract class BlurSession {
     private boolean paused;
     private Instant startedAt;
     private int playedTicks;
+    private int currentTick;
     private SessionTicker ticker;
 
     private final Map<UUID, BlurPlayer> players = new HashMap<>();
     private final Map<BlurPlayer, Instant> removingPlayers = new HashMap<>();
     //    private final Table<BlurPlayer, Class, Object> customData = HashBasedTable.create();
     private final MetadataStorage<BlurPlayer> playerMetadata = new BasicMetadataStorage<>();
+    /*
+     * Reverse index of player data to the components that registered it as a tickable. This saves removePlayer from having to visit every
+     * module (and missing submodules and subcomponents) just to find the few components that actually own tasks for the player's data.
+     */
+    private final Multimap<Object, Component> tickableOwners = HashMultimap.create();
 
     private net.kyori.text.Component messagePrefix = TextComponent.of("");
 
@@ -239,6 +250,8 @@ public abstract class BlurSession {
         for (BlurPlayer blurPlayer : new HashSet<>(this.players.values())) {
             removePlayer(blurPlayer);
         }
+        // Owners are unloaded at this point, drop whatever is left from players that refused to leave (cancelled switch).
+        this.tickableOwners.clear();
         this.ticker.stop();
         this.ticker = null;
         this.onStopTasks.forEach(Runnable::run);
@@ -260,51 +273,97 @@ public abstract class BlurSession {
     public void addPlayer(@Nonnull BlurPlayer blurPlayer) {
         Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.");
         if (!this.players.containsKey(blurPlayer.getUuid())) {
-            if (blurPlayer.blurSession != null && !(blurPlayer.blurSession instanceof RootBlurSession)) {
-                PlayerSwitchSessionEvent switchEvent = callEvent(new PlayerSwitchSessionEvent(blurPlayer, this));
-                if (switchEvent.isCancelled()) {
-                    return;
-                }
-                if (switchEvent.getNextSession() != null && switchEvent.getNextSession() != this) {
-                    switchEvent.getNextSession().addPlayer(blurPlayer);
-                    return;
-                }
+            if (!switchToThisSession(blurPlayer)) {
+                return;
             }
             getLogger().finer("Adding %s to %s", blurPlayer.getName(), getName());
             this.players.put(blurPlayer.getUuid(), blurPlayer);
             blurPlayer.blurSession = this;
 
             callEvent(new PlayerPreJoinSessionEvent(blurPlayer, this));
-            initializePlayerDataClasses(blurPlayer);
+            initializePlayerDataClasses(Collections.singletonList(blurPlayer));
             callEvent(new PlayerJoinSessionEvent(blurPlayer, this, false));
         }
     }
 
-    private void initializePlayerDataClasses(BlurPlayer blurPlayer) {
-        getLogger().fine("Initializing player data classes for %s", blurPlayer.getName());
+    /**
+     * Adds a batch of {@link BlurPlayer}s to this session. This is the same as calling {@link #addPlayer(BlurPlayer)} for each player, except
+     * that player data is initialized in one pass over the components, teams are assigned once for the whole batch, and a single
+     * {@link PlayersJoinSessionEvent} is fired before each player's {@link PlayerJoinSessionEvent}.
+     *
+     * @param blurPlayers players to add
+     */
+    public void addPlayers(@Nonnull Collection<BlurPlayer> blurPlayers) {
+        Preconditions.checkNotNull(blurPlayers, "blurPlayers cannot be null.");
+        Map<UUID, BlurPlayer> joining = Maps.newLinkedHashMapWithExpectedSize(blurPlayers.size());
+        for (BlurPlayer blurPlayer : blurPlayers) {
+            Preconditions.checkNotNull(blurPlayer, "blurPlayers cannot contain null.");
+            UUID uuid = blurPlayer.getUuid();
+            if (!this.players.containsKey(uuid) && !joining.containsKey(uuid) && switchToThisSession(blurPlayer)) {
+                joining.put(uuid, blurPlayer);
+            }
+        }
+        if (joining.isEmpty()) {
+            return;
+        }
+
+        getLogger().finer("Adding %d players to %s", joining.size(), getName());
+        this.players.putAll(joining);
+        List<BlurPlayer> joined = new ArrayList<>(joining.values());
+        for (BlurPlayer blurPlayer : joined) {
+            blurPlayer.blurSession = this;
+            callEvent(new PlayerPreJoinSessionEvent(blurPlayer, this));
+        }
+        initializePlayerDataClasses(joined);
+        callEvent(new PlayersJoinSessionEvent(joined, this));
+        for (BlurPlayer blurPlayer : joined) {
+            callEvent(new PlayerJoinSessionEvent(blurPlayer, this, false, true));
+        }
+    }
+
+    /*
+     * Fires PlayerSwitchSessionEvent when the player is coming from another non-root session. Returns false if the switch was cancelled or 
+     * redirected to another session, in which case the player must not be added to this session.
+     */
+    private boolean switchToThisSession(BlurPlayer blurPlayer) {
+        if (blurPlayer.blurSession != null && !(blurPlayer.blurSession instanceof RootBlurSession)) {
+            PlayerSwitchSessionEvent switchEvent = callEvent(new PlayerSwitchSessionEvent(blurPlayer, this));
+            if (switchEvent.isCancelled()) {
+                return false;
+            }
+            if (switchEvent.getNextSession() != null && switchEvent.getNextSession() != this) {
+                switchEvent.getNextSession().addPlayer(blurPlayer);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void initializePlayerDataClasses(List<BlurPlayer> blurPlayers) {
+        getLogger().fine("Initializing player data classes for %d player(s)", blurPlayers.size());
         for (Class<? extends Module> clazz : moduleManager.getModules().keySet()) {
             Module module = moduleManager.getModules().get(clazz).iterator().next();
-            initializeComponentPlayerDataClasses(module, blurPlayer);
+            initializeComponentPlayerDataClasses(module, blurPlayers);
         }
         for (SharedComponent component : sharedComponents.values()) {
-            initializeComponentPlayerDataClasses(component, blurPlayer);
+            initializeComponentPlayerDataClasses(component, blurPlayers);
         }
     }
 
-    private void initializeComponentPlayerDataClasses(Component component, BlurPlayer blurPlayer) {
-        List<Object> dataInstances = component.getPlayerMetadataCreator().initialize(blurPlayer);
-
+    private void initializeComponentPlayerDataClasses(Component component, List<BlurPlayer> blurPlayers) {
         // Initialise data instances
-        for (Object data : dataInstances) {
-            addPlayerData(component, blurPlayer, data);
+        for (BlurPlayer blurPlayer : blurPlayers) {
+            for (Object data : component.getPlayerMetadataCreator().initialize(blurPlayer)) {
+                addPlayerData(component, blurPlayer, data);
+            }
         }
         if (component instanceof Module) {
             for (Module submodule : ((Module) component).getSubmodules()) {
-                initializeComponentPlayerDataClasses(submodule, blurPlayer);
+                initializeComponentPlayerDataClasses(submodule, blurPlayers);
             }
         }
         for (Component subcomponent : component.getSubcomponents()) {
-            initializeComponentPlayerDataClasses(subcomponent, blurPlayer);
+            initializeComponentPlayerDataClasses(subcomponent, blurPlayers);
         }
     }
 
@@ -314,12 +373,27 @@ public abstract class BlurSession {
         Preconditions.checkNotNull(data, "data");
 
         playerMetadata.put(blurPlayer, data);
-        component.addTickable(data);
+        if (component.addTickable(data)) {
+            tickableOwners.put(data, component);
+        }
         if (data instanceof PlayerData) {
             ((PlayerData) data).enable();
         }
     }
 
+    private void removePlayerData(BlurPlayer blurPlayer, Object data) {
+        if (data instanceof PlayerData) {
+            ((PlayerData) data).disable();
+        }
+        for (Component owner : tickableOwners.removeAll(data)) {
+            owner.removeTickable(data);
+        }
+        playerMetadata.remove(blurPlayer, data);
+        if (data instanceof SessionPortable && !blurPlayer.isQuitting()) {
+            blurPlayer.keepPortableData((SessionPortable) data);
+        }
+    }
+
     public boolean removePlayer(@Nonnull BlurPlayer blurPlayer) {
         Preconditions.checkNotNull(blurPlayer, "blurPlayer cannot be null.");
         if (this.players.containsKey(blurPlayer.getUuid()) && !removingPlayers.containsKey(blurPlayer)) {
@@ -343,15 +417,8 @@ public abstract class BlurSession {
                 callEvent(new PlayerLeaveSessionEvent(blurPlayer, this, nextSession));
 
                 // Unregister player custom data classes.
-                for (Object data : new HashSet<>(playerMetadata.getList(blurPlayer))) {
-                    if (data instanceof PlayerData) {
-                        ((PlayerData) data).disable();
-                    }
-                    for (Class<? extends Module> moduleClass : moduleManager.getModules().keySet()) {
-                        Module module = moduleManager.getModules().get(moduleClass).iterator().next();
-                        module.removeTickable(data);
-                    }
-                    playerMetadata.remove(blurPlayer, data);
+                for (Object data : playerMetadata.getList(blurPlayer)) {
+                    removePlayerData(blurPlayer, data);
                 }
 
                 // If a player is removed from this session, all children should not have the same player.
@@ -481,6 +548,16 @@ public abstract class BlurSession {
         return playedTicks;
     }
 
+    /**
+     * Returns the number of server ticks since this session's ticker started, including ticks while paused. Unlike {@link #getPlayedTicks()} this
+     * advances on every server tick, which makes it suitable for invalidating values cached for a tick.
+     *
+     * @return current tick, or -1 if this session's ticker isn't running
+     */
+    public int getCurrentTick() {
+        return ticker != null && ticker.isStarted() ? currentTick : -1;
+    }
+
     public SessionTicker getTicker() {
         return ticker;
     }
@@ -695,8 +772,11 @@ public abstract class BlurSession {
 
         @Override
         public void run() {
-            if (!this.isPaused() && this.isStarted()) {
-                BlurSession.this.playedTicks++;
+            if (this.isStarted()) {
+                BlurSession.this.currentTick++;
+                if (!this.isPaused()) {
+                    BlurSession.this.playedTicks++;
+                }
             }
         }
     }
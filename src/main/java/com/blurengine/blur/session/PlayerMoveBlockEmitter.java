@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.session;
+
+import com.google.common.base.Preconditions;
+
+import com.blurengine.blur.Blur;
+import com.blurengine.blur.events.players.PlayerJoinSessionEvent;
+import com.blurengine.blur.events.players.PlayerMoveBlockEvent;
+import com.blurengine.blur.utils.BlockKeys;
+import com.supaham.commons.bukkit.utils.EventUtils;
+
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Emits {@link PlayerMoveBlockEvent} from {@link PlayerMoveEvent} and {@link PlayerTeleportEvent}. Each {@link BlurPlayer} remembers the packed
+ * coordinates of the block it was last in, and the event is only fired when those integer coordinates change. Moves that only rotate the player's
+ * head are rejected before any lookup. The remembered block is forgotten when a player joins a session, and for every player when this emitter
+ * registers, as it may be stale by then.
+ * <p />
+ * This emitter only listens to moves and teleports while something is listening to {@link PlayerMoveBlockEvent}. Components update it
+ * automatically when they register or unregister listeners, anything else must call {@link #updateRegistration()} after doing so.
+ */
+public class PlayerMoveBlockEmitter implements Listener {
+
+    static final long UNSET = Long.MIN_VALUE;
+
+    private final Blur blur;
+    private boolean registered;
+
+    public PlayerMoveBlockEmitter(@Nonnull Blur blur) {
+        this.blur = Preconditions.checkNotNull(blur, "blur cannot be null.");
+    }
+
+    /**
+     * Registers or unregisters this emitter depending on whether {@link PlayerMoveBlockEvent} currently has any listeners.
+     */
+    public void updateRegistration() {
+        boolean listened = PlayerMoveBlockEvent.getHandlerList().getRegisteredListeners().length > 0;
+        if (listened != this.registered) {
+            this.blur.getLogger().finer("%s PlayerMoveBlockEmitter", listened ? "Registering" : "Unregistering");
+            if (listened) {
+                for (BlurPlayer blurPlayer : this.blur.getPlayers()) {
+                    blurPlayer.lastBlockKey = UNSET;
+                }
+                this.blur.getPlugin().registerEvents(this);
+            } else {
+                this.blur.getPlugin().unregisterEvents(this);
+            }
+            this.registered = listened;
+        }
+    }
+
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoinSession(PlayerJoinSessionEvent event) {
+        event.getBlurPlayer().lastBlockKey = UNSET;
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        emit(event);
+    }
+
+    // Teleports have their own handler list, PlayerMoveEvent listeners don't receive them.
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        emit(event);
+    }
+
+    private void emit(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Head rotation only
+        if (to == null || (from.getX() == to.getX() && from.getY() == to.getY() && from.getZ() == to.getZ() && from.getWorld() == to.getWorld())) {
+            return;
+        }
+        BlurPlayer blurPlayer = this.blur.getPlayer(event.getPlayer());
+        if (blurPlayer == null || blurPlayer.getSession() == null) {
+            return;
+        }
+
+        long lastKey = blurPlayer.lastBlockKey;
+        if (lastKey == UNSET) {
+            lastKey = BlockKeys.of(from);
+        }
+        // Keys don't include the world, teleports to another world always change block.
+        if (BlockKeys.of(to) != lastKey || from.getWorld() != to.getWorld()) {
+            EventUtils.callEvent(new PlayerMoveBlockEvent(event, blurPlayer));
+            // Listeners may have cancelled the move or changed its destination.
+            blurPlayer.lastBlockKey = BlockKeys.of(event.isCancelled() ? from : event.getTo());
+        }
+    }
+}
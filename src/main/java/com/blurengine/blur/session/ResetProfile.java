@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.session;
+
+import com.supaham.commons.bukkit.players.Players;
+
+import org.bukkit.GameMode;
+
+import javax.annotation.Nullable;
+
+import pluginbase.config.annotation.Name;
+
+/**
+ * Represents the target state of a {@link BlurPlayer} after {@link BlurPlayer#reset(ResetProfile)}. Only the properties of the player that differ
+ * from this profile are applied. A null property means that property is left untouched.
+ * <p />
+ * A new instance holds the same values as {@link #DEFAULT}, modules may load their own profile from their module data, e.g.:
+ * <pre>
+ * reset:
+ *   food-level: 10
+ *   game-mode: ADVENTURE
+ *   clear-potion-effects: true
+ * </pre>
+ */
+public class ResetProfile {
+
+    /**
+     * The profile used by {@link BlurPlayer#reset()}.
+     */
+    public static final ResetProfile DEFAULT = new ResetProfile();
+
+    @Name("clear-inventory")
+    private boolean clearInventory = true;
+    @Name("clear-potion-effects")
+    private boolean clearPotionEffects = false;
+    @Name("reset-max-health")
+    private boolean resetMaxHealth = true;
+    private boolean heal = true;
+
+    @Name("food-level")
+    private Integer foodLevel = 20;
+    private Float saturation = 5f;
+    private Float exhaustion = 0f;
+
+    @Name("walk-speed")
+    private Float walkSpeed = Players.DEFAULT_WALK_SPEED;
+    @Name("fly-speed")
+    private Float flySpeed = Players.DEFAULT_FLY_SPEED;
+
+    @Name("total-experience")
+    private Integer totalExperience = 0;
+    private Float exp = 0f;
+    private Integer level = 0;
+
+    @Name("remaining-air")
+    private Integer remainingAir = 0;
+    @Name("fall-distance")
+    private Float fallDistance = 0f;
+    @Name("fire-ticks")
+    private Integer fireTicks = 0;
+    @Name("reset-player-time")
+    private boolean resetPlayerTime = true;
+    @Name("reset-player-weather")
+    private boolean resetPlayerWeather = true;
+    @Name("clear-bed-spawn")
+    private boolean clearBedSpawn = true;
+
+    @Name("game-mode")
+    private GameMode gameMode;
+    @Name("allow-flight")
+    private Boolean allowFlight;
+
+    public boolean isClearInventory() {
+        return clearInventory;
+    }
+
+    public boolean isClearPotionEffects() {
+        return clearPotionEffects;
+    }
+
+    public boolean isResetMaxHealth() {
+        return resetMaxHealth;
+    }
+
+    public boolean isHeal() {
+        return heal;
+    }
+
+    @Nullable
+    public Integer getFoodLevel() {
+        return foodLevel;
+    }
+
+    @Nullable
+    public Float getSaturation() {
+        return saturation;
+    }
+
+    @Nullable
+    public Float getExhaustion() {
+        return exhaustion;
+    }
+
+    @Nullable
+    public Float getWalkSpeed() {
+        return walkSpeed;
+    }
+
+    @Nullable
+    public Float getFlySpeed() {
+        return flySpeed;
+    }
+
+    @Nullable
+    public Integer getTotalExperience() {
+        return totalExperience;
+    }
+
+    @Nullable
+    public Float getExp() {
+        return exp;
+    }
+
+    @Nullable
+    public Integer getLevel() {
+        return level;
+    }
+
+    @Nullable
+    public Integer getRemainingAir() {
+        return remainingAir;
+    }
+
+    @Nullable
+    public Float getFallDistance() {
+        return fallDistance;
+    }
+
+    @Nullable
+    public Integer getFireTicks() {
+        return fireTicks;
+    }
+
+    public boolean isResetPlayerTime() {
+        return resetPlayerTime;
+    }
+
+    public boolean isResetPlayerWeather() {
+        return resetPlayerWeather;
+    }
+
+    public boolean isClearBedSpawn() {
+        return clearBedSpawn;
+    }
+
+    @Nullable
+    public GameMode getGameMode() {
+        return gameMode;
+    }
+
+    @Nullable
+    public Boolean getAllowFlight() {
+        return allowFlight;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.session;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Table;
+
+import com.blurengine.blur.Blur;
+import com.blurengine.blur.events.session.BlurSessionEvent;
+import com.blurengine.blur.framework.HandlerMethodsCache;
+import com.blurengine.blur.framework.HandlerMethodsCache.HandlerMethod;
+import com.blurengine.blur.framework.SessionScoped;
+import com.supaham.commons.bukkit.CommonPlugin;
+
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.hanging.HangingEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.bukkit.event.weather.WeatherEvent;
+import org.bukkit.event.world.WorldEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Routes the events of {@link SessionScoped} listeners to the sessions they belong to. Each event class and priority is registered to Bukkit once,
+ * no matter how many sessions listen to it, and every event is dispatched by its session, or its world, to only the interested listeners.
+ * <p />
+ * Listeners that aren't {@link SessionScoped} are registered to Bukkit directly. In both cases handlers are found and invoked through the
+ * {@link HandlerMethodsCache} rather than Bukkit's reflective registration.
+ */
+public class SessionEventRouter {
+
+    private final Blur blur;
+    private final Map<Listener, List<Route>> routes = new HashMap<>();
+    private final Table<Class<? extends Event>, EventPriority, Dispatcher> dispatchers = HashBasedTable.create();
+
+    public SessionEventRouter(@Nonnull Blur blur) {
+        this.blur = Preconditions.checkNotNull(blur, "blur cannot be null.");
+    }
+
+    public static boolean isSessionScoped(@Nonnull Listener listener) {
+        return Preconditions.checkNotNull(listener, "listener cannot be null.").getClass().isAnnotationPresent(SessionScoped.class);
+    }
+
+    /**
+     * Registers a {@link Listener} belonging to a {@link BlurSession}. If the listener is {@link SessionScoped} its handlers are routed, otherwise
+     * it is registered to Bukkit directly.
+     *
+     * @param listener listener to register
+     * @param session session the listener belongs to
+     */
+    public void register(@Nonnull Listener listener, @Nonnull BlurSession session) {
+        Preconditions.checkNotNull(session, "session cannot be null.");
+        CommonPlugin plugin = this.blur.getPlugin();
+        List<HandlerMethod> handlerMethods = HandlerMethodsCache.loadClass(listener.getClass());
+        if (!isSessionScoped(listener)) {
+            PluginManager pluginManager = plugin.getServer().getPluginManager();
+            for (HandlerMethod handlerMethod : handlerMethods) {
+                pluginManager.registerEvent(handlerMethod.getEventClass(), listener, handlerMethod.getPriority(), handlerMethod.getExecutor(), plugin,
+                    handlerMethod.isIgnoreCancelled());
+            }
+            return;
+        }
+        Preconditions.checkState(!this.routes.containsKey(listener), "listener is already registered.");
+
+        World world = session instanceof WorldBlurSession ? ((WorldBlurSession) session).getWorld() : null;
+        List<Route> listenerRoutes = new ArrayList<>(handlerMethods.size());
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            RegisteredListener registeredListener = new RegisteredListener(listener, handlerMethod.getExecutor(), handlerMethod.getPriority(), plugin,
+                handlerMethod.isIgnoreCancelled());
+            Dispatcher dispatcher = getDispatcher(handlerMethod.getEventClass(), handlerMethod.getPriority());
+            Route route = new Route(dispatcher, session, world, registeredListener);
+            dispatcher.add(route);
+            listenerRoutes.add(route);
+        }
+        this.routes.put(listener, listenerRoutes);
+    }
+
+    /**
+     * Unregisters a {@link Listener} previously registered with {@link #register(Listener, BlurSession)}.
+     *
+     * @param listener listener to unregister
+     */
+    public void unregister(@Nonnull Listener listener) {
+        Preconditions.checkNotNull(listener, "listener cannot be null.");
+        List<Route> listenerRoutes = this.routes.remove(listener);
+        if (listenerRoutes == null) {
+            HandlerList.unregisterAll(listener);
+            return;
+        }
+        for (Route route : listenerRoutes) {
+            Dispatcher dispatcher = route.dispatcher;
+            dispatcher.remove(route);
+            if (dispatcher.isEmpty()) {
+                this.dispatchers.remove(dispatcher.eventClass, dispatcher.priority);
+                HandlerList.unregisterAll(dispatcher);
+            }
+        }
+    }
+
+    private Dispatcher getDispatcher(Class<? extends Event> eventClass, EventPriority priority) {
+        Dispatcher dispatcher = this.dispatchers.get(eventClass, priority);
+        if (dispatcher == null) {
+            dispatcher = new Dispatcher(eventClass, priority);
+            this.dispatchers.put(eventClass, priority, dispatcher);
+            // Cancelled events are filtered by each RegisteredListener instead.
+            CommonPlugin plugin = this.blur.getPlugin();
+            plugin.getServer().getPluginManager().registerEvent(eventClass, dispatcher, priority, dispatcher, plugin, false);
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Returns the {@link World} a Bukkit event happens in, or null if it is not bound to a world.
+     */
+    @Nullable
+    private static World getWorld(Event event) {
+        if (event instanceof WorldEvent) {
+            return ((WorldEvent) event).getWorld();
+        } else if (event instanceof WeatherEvent) {
+            return ((WeatherEvent) event).getWorld();
+        } else if (event instanceof BlockEvent) {
+            return ((BlockEvent) event).getBlock().getWorld();
+        } else if (event instanceof EntityEvent) {
+            return ((EntityEvent) event).getEntity().getWorld();
+        } else if (event instanceof PlayerEvent) {
+            return ((PlayerEvent) event).getPlayer().getWorld();
+        } else if (event instanceof HangingEvent) {
+            return ((HangingEvent) event).getEntity().getWorld();
+        } else if (event instanceof VehicleEvent) {
+            return ((VehicleEvent) event).getVehicle().getWorld();
+        }
+        return null;
+    }
+
+    private static final class Route {
+
+        private final Dispatcher dispatcher;
+        private final BlurSession session;
+        @Nullable private final World world;
+        private final RegisteredListener listener;
+
+        private Route(Dispatcher dispatcher, BlurSession session, @Nullable World world, RegisteredListener listener) {
+            this.dispatcher = dispatcher;
+            this.session = session;
+            this.world = world;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * The single Bukkit registration of an event class and priority. Routes are indexed into immutable snapshots so that events, including
+     * asynchronous ones, are dispatched without locking.
+     */
+    private final class Dispatcher implements Listener, EventExecutor {
+
+        private final Class<? extends Event> eventClass;
+        private final EventPriority priority;
+        private final List<Route> routes = new ArrayList<>();
+
+        private volatile ImmutableList<RegisteredListener> all = ImmutableList.of();
+        private volatile ImmutableList<RegisteredListener> worldless = ImmutableList.of();
+        private volatile ImmutableListMultimap<World, RegisteredListener> byWorld = ImmutableListMultimap.of();
+        private volatile ImmutableListMultimap<BlurSession, RegisteredListener> bySession = ImmutableListMultimap.of();
+
+        private Dispatcher(Class<? extends Event> eventClass, EventPriority priority) {
+            this.eventClass = eventClass;
+            this.priority = priority;
+        }
+
+        private void add(Route route) {
+            this.routes.add(route);
+            reindex();
+        }
+
+        private void remove(Route route) {
+            this.routes.remove(route);
+            reindex();
+        }
+
+        private boolean isEmpty() {
+            return this.routes.isEmpty();
+        }
+
+        private void reindex() {
+            ImmutableList.Builder<RegisteredListener> all = ImmutableList.builder();
+            ImmutableList.Builder<RegisteredListener> worldless = ImmutableList.builder();
+            ImmutableListMultimap.Builder<World, RegisteredListener> byWorld = ImmutableListMultimap.builder();
+            ImmutableListMultimap.Builder<BlurSession, RegisteredListener> bySession = ImmutableListMultimap.builder();
+            for (Route route : this.routes) {
+                all.add(route.listener);
+                bySession.put(route.session, route.listener);
+                if (route.world == null) {
+                    worldless.add(route.listener);
+                } else {
+                    byWorld.put(route.world, route.listener);
+                }
+            }
+            this.all = all.build();
+            this.worldless = worldless.build();
+            this.byWorld = byWorld.build();
+            this.bySession = bySession.build();
+        }
+
+        @Override
+        public void execute(Listener listener, Event event) {
+            if (!this.eventClass.isInstance(event)) {
+                return;
+            }
+            if (event instanceof BlurSessionEvent) {
+                call(this.bySession.get(((BlurSessionEvent) event).getSession()), event);
+                return;
+            }
+            World world = getWorld(event);
+            if (world == null) {
+                call(this.all, event);
+            } else {
+                call(this.byWorld.get(world), event);
+                call(this.worldless, event);
+            }
+        }
+
+        private void call(List<RegisteredListener> listeners, Event event) {
+            for (RegisteredListener registeredListener : listeners) {
+                // Mirrors SimplePluginManager, one failing handler must not prevent the others from receiving the event.
+                try {
+                    registeredListener.callEvent(event);
+                } catch (Throwable t) {
+                    blur.getLogger().severe("Could not pass event " + event.getEventName() + " to "
+                        + registeredListener.getListener().getClass().getName());
+                    t.printStackTrace();
+                }
+            }
+        }
+    }
+}
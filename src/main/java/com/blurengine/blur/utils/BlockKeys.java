@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.utils;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Utility methods for packing block coordinates into a single {@code long}. x and z occupy 26 bits each and y occupies 12 bits, which covers the
+ * whole of a Minecraft world. Packed keys are handy as allocation-free map keys and for cheap block-change comparisons.
+ */
+public final class BlockKeys {
+
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final int X_SHIFT = XZ_BITS + Y_BITS;
+    private static final int Z_SHIFT = Y_BITS;
+
+    private BlockKeys() {}
+
+    public static long of(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+
+    public static long of(@Nonnull Location location) {
+        return of(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public static long of(@Nonnull Block block) {
+        return of(block.getX(), block.getY(), block.getZ());
+    }
+
+    public static int getX(long key) {
+        return (int) (key >> X_SHIFT);
+    }
+
+    public static int getY(long key) {
+        return (int) (key << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public static int getZ(long key) {
+        return (int) (key << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+}
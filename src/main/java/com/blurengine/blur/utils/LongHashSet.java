@@ -0,0 +1,229 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.utils;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Represents a set of primitive {@code long}s, backed by an open-addressing table with linear probing. Unlike a {@code Set<Long>} it neither boxes
+ * its elements nor allocates per entry, which makes it a good fit for sets of {@link BlockKeys}.
+ */
+public final class LongHashSet {
+
+    // 0 marks free slots in the table, the zero key itself is tracked separately.
+    private static final long FREE = 0;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        Preconditions.checkArgument(expectedSize >= 0, "expectedSize cannot be negative.");
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // Keeps the load factor at or below 0.5.
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        Preconditions.checkArgument(capacity > 0, "expectedSize is too large.");
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public boolean add(long key) {
+        if (key == FREE) {
+            if (this.containsZero) {
+                return false;
+            }
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+        int slot = mix(key) & this.mask;
+        for (long current; (current = this.keys[slot]) != FREE; slot = (slot + 1) & this.mask) {
+            if (current == key) {
+                return false;
+            }
+        }
+        this.keys[slot] = key;
+        if (++this.size * 2 > this.keys.length) {
+            rehash(this.keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE) {
+            return this.containsZero;
+        }
+        int slot = mix(key) & this.mask;
+        for (long current; (current = this.keys[slot]) != FREE; slot = (slot + 1) & this.mask) {
+            if (current == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE) {
+            if (!this.containsZero) {
+                return false;
+            }
+            this.containsZero = false;
+            this.size--;
+            return true;
+        }
+        int slot = mix(key) & this.mask;
+        for (long current; (current = this.keys[slot]) != FREE; slot = (slot + 1) & this.mask) {
+            if (current == key) {
+                shiftKeys(slot);
+                this.size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes the gap left by a removed key by moving back the following keys of its cluster that would otherwise become unreachable.
+     */
+    private void shiftKeys(int slot) {
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & this.mask;
+            long current;
+            while (true) {
+                if ((current = this.keys[slot]) == FREE) {
+                    this.keys[last] = FREE;
+                    return;
+                }
+                int ideal = mix(current) & this.mask;
+                // Move the key back unless its ideal slot lies cyclically within (last, slot].
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot) {
+                    break;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = this.keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key != FREE) {
+                int slot = mix(key) & this.mask;
+                while (this.keys[slot] != FREE) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = key;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.keys, FREE);
+            this.containsZero = false;
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Performs an action for every element of this set, in no particular order. The set must not be modified by the action.
+     *
+     * @param action action to perform
+     */
+    public void forEach(LongConsumer action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        if (this.containsZero) {
+            action.accept(FREE);
+        }
+        for (long key : this.keys) {
+            if (key != FREE) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements of this set, in no particular order. The set must not be modified while iterating.
+     *
+     * @return iterator of elements
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private boolean zeroPending = containsZero;
+            private int slot = nextSlot(0);
+
+            private int nextSlot(int from) {
+                while (from < keys.length && keys[from] == FREE) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return zeroPending || slot < keys.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (zeroPending) {
+                    zeroPending = false;
+                    return FREE;
+                }
+                if (slot >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                long key = keys[slot];
+                slot = nextSlot(slot + 1);
+                return key;
+            }
+        };
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.utils;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Represents a map of primitive {@code long} keys to non-null values, backed by an open-addressing table with linear probing. This is the map
+ * counterpart of {@link LongHashSet}, and likewise neither boxes its keys nor allocates per entry.
+ *
+ * @param <V> type of values
+ */
+public final class LongObjectHashMap<V> {
+
+    // 0 marks free slots in the table, the zero key itself is tracked separately.
+    private static final long FREE = 0;
+
+    private long[] keys;
+    private V[] values;
+    private int mask;
+    private int size;
+    private V zeroValue;
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        Preconditions.checkArgument(expectedSize >= 0, "expectedSize cannot be negative.");
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // Keeps the load factor at or below 0.5.
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        Preconditions.checkArgument(capacity > 0, "expectedSize is too large.");
+        return capacity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Nullable
+    public V get(long key) {
+        if (key == FREE) {
+            return this.zeroValue;
+        }
+        int slot = mix(key) & this.mask;
+        for (long current; (current = this.keys[slot]) != FREE; slot = (slot + 1) & this.mask) {
+            if (current == key) {
+                return this.values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     *
+     * @param key key
+     * @param value value, not null
+     *
+     * @return the previous value of the key, null if there was none
+     */
+    @Nullable
+    public V put(long key, @Nonnull V value) {
+        Preconditions.checkNotNull(value, "value cannot be null.");
+        if (key == FREE) {
+            V previous = this.zeroValue;
+            if (previous == null) {
+                this.size++;
+            }
+            this.zeroValue = value;
+            return previous;
+        }
+        int slot = mix(key) & this.mask;
+        for (long current; (current = this.keys[slot]) != FREE; slot = (slot + 1) & this.mask) {
+            if (current == key) {
+                V previous = this.values[slot];
+                this.values[slot] = value;
+                return previous;
+            }
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size * 2 > this.keys.length) {
+            rehash(this.keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key key
+     *
+     * @return the removed value, null if the key wasn't present
+     */
+    @Nullable
+    public V remove(long key) {
+        if (key == FREE) {
+            V previous = this.zeroValue;
+            if (previous != null) {
+                this.zeroValue = null;
+                this.size--;
+            }
+            return previous;
+        }
+        int slot = mix(key) & this.mask;
+        for (long current; (current = this.keys[slot]) != FREE; slot = (slot + 1) & this.mask) {
+            if (current == key) {
+                V previous = this.values[slot];
+                shiftKeys(slot);
+                this.size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the gap left by a removed key by moving back the following entries of its cluster that would otherwise become unreachable.
+     */
+    private void shiftKeys(int slot) {
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & this.mask;
+            long current;
+            while (true) {
+                if ((current = this.keys[slot]) == FREE) {
+                    this.keys[last] = FREE;
+                    this.values[last] = null;
+                    return;
+                }
+                int ideal = mix(current) & this.mask;
+                // Move the entry back unless its ideal slot lies cyclically within (last, slot].
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot) {
+                    break;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[last] = current;
+            this.values[last] = this.values[slot];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = this.keys;
+        V[] oldValues = this.values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE) {
+                int slot = mix(key) & this.mask;
+                while (this.keys[slot] != FREE) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = key;
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.keys, FREE);
+            Arrays.fill(this.values, null);
+            this.zeroValue = null;
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Performs an action for every entry of this map, in no particular order. The map must not be modified by the action.
+     *
+     * @param action action to perform with each value and its key
+     */
+    public void forEach(@Nonnull ObjLongConsumer<? super V> action) {
+        Preconditions.checkNotNull(action, "action cannot be null.");
+        if (this.zeroValue != null) {
+            action.accept(this.zeroValue, FREE);
+        }
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != FREE) {
+                action.accept(this.values[i], this.keys[i]);
+            }
+        }
+    }
+}
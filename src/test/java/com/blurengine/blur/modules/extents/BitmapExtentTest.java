@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class BitmapExtentTest {
+
+    private static byte[] write(BitmapExtent bitmap) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static BitmapExtent read(byte[] bytes) throws IOException {
+        return BitmapExtent.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static Set<Long> blocks(Extent extent) {
+        Set<Long> blocks = new HashSet<>();
+        extent.forEachBlock((x, y, z) -> blocks.add(BlockKeys.of(x, y, z)));
+        return blocks;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        // Concave, self-intersecting and at negative coordinates, so that runs split across rows and layers.
+        PolygonExtent polygon = new PolygonExtent(Arrays.asList(new Vector(-12.5, 0, -3), new Vector(7, 0, -9.25), new Vector(1, 0, 4),
+            new Vector(9.5, 0, 11), new Vector(-4, 0, 6.5), new Vector(3, 0, -1)), -2, 3);
+        BitmapExtent baked = BitmapExtent.bake(polygon);
+        Assert.assertEquals(blocks(polygon), blocks(baked));
+
+        byte[] bytes = write(baked);
+        BitmapExtent read = read(bytes);
+        Assert.assertEquals(baked.getOriginX(), read.getOriginX());
+        Assert.assertEquals(baked.getOriginY(), read.getOriginY());
+        Assert.assertEquals(baked.getOriginZ(), read.getOriginZ());
+        Assert.assertEquals(baked.getSizeX(), read.getSizeX());
+        Assert.assertEquals(baked.getSizeY(), read.getSizeY());
+        Assert.assertEquals(baked.getSizeZ(), read.getSizeZ());
+        Assert.assertEquals(baked.getVolume(), read.getVolume(), 0);
+        Assert.assertEquals(blocks(baked), blocks(read));
+
+        for (int x = baked.getOriginX() - 1; x <= baked.getOriginX() + baked.getSizeX(); x++) {
+            for (int y = baked.getOriginY() - 1; y <= baked.getOriginY() + baked.getSizeY(); y++) {
+                for (int z = baked.getOriginZ() - 1; z <= baked.getOriginZ() + baked.getSizeZ(); z++) {
+                    Assert.assertEquals(baked.contains(x + 0.5, y + 0.5, z + 0.5), read.contains(x + 0.5, y + 0.5, z + 0.5));
+                }
+            }
+        }
+        Assert.assertArrayEquals(bytes, write(read));
+    }
+
+    @Test
+    public void testEmptyRoundTrip() throws Exception {
+        BitmapExtent empty = BitmapExtent.bake(new PolygonExtent(Arrays.asList(new Vector(0, 0, 0), new Vector(1, 0, 0), new Vector(0, 0, 1)), 0, 0));
+        BitmapExtent read = read(write(empty));
+        Assert.assertEquals(0, read.getVolume(), 0);
+        Assert.assertTrue(blocks(read).isEmpty());
+        Assert.assertFalse(read.contains(0.5, 0.5, 0.5));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidRunLength() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i : new int[]{0, 0, 0, 2, 2, 2}) {
+            out.writeInt(i);
+        }
+        out.writeInt(3);
+        out.writeInt(6); // Only 5 blocks remain.
+        read(bytes.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSize() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i : new int[]{0, 0, 0, 2, -1, 2}) {
+            out.writeInt(i);
+        }
+        read(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+import com.supaham.commons.bukkit.utils.ImmutableVector;
+
+import org.bukkit.util.BlockVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class CylinderExtentTest {
+
+    @Test
+    public void testContains() throws Exception {
+        CylinderExtent cylinder = new CylinderExtent(new ImmutableVector(0.5, 10, 0.5), 3, 2);
+        Assert.assertTrue(cylinder.contains(0.5, 10, 0.5));
+        Assert.assertTrue(cylinder.contains(3.4, 12, 0.5));
+        Assert.assertFalse(cylinder.contains(3.5, 11, 0.5));
+        Assert.assertFalse(cylinder.contains(2.7, 11, 2.7));
+        Assert.assertFalse(cylinder.contains(0.5, 9.9, 0.5));
+        Assert.assertFalse(cylinder.contains(0.5, 12.1, 0.5));
+    }
+
+    @Test
+    public void testBlocksMatchBruteForce() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            // Mix of whole, half and arbitrary bases and radii.
+            double scale = i % 3 == 0 ? 1 : i % 3 == 1 ? 2 : 1000;
+            ImmutableVector base = new ImmutableVector(Math.round((random.nextDouble() * 40 - 20) * scale) / scale,
+                Math.round(random.nextDouble() * 10 * scale) / scale, Math.round((random.nextDouble() * 40 - 20) * scale) / scale);
+            double radius = Math.max(0.25, Math.round(random.nextDouble() * 12 * scale) / scale);
+            double height = Math.round(random.nextDouble() * 4 * scale) / scale;
+            CylinderExtent cylinder = new CylinderExtent(base, radius, height);
+            assertBlocksMatchBruteForce(cylinder);
+        }
+    }
+
+    @Test
+    public void testLargeRadius() throws Exception {
+        CylinderExtent cylinder = new CylinderExtent(new ImmutableVector(1000.5, 64, -2000.5), 300, 1);
+        Set<Long> blocks = assertBlocksMatchBruteForce(cylinder);
+        // A block's centre is within the circle for roughly the circle's area worth of blocks.
+        Assert.assertEquals(Math.PI * 300 * 300, blocks.size(), 300 * 4);
+    }
+
+    private Set<Long> assertBlocksMatchBruteForce(CylinderExtent cylinder) {
+        Set<Long> expected = new HashSet<>();
+        ExtentBounds bounds = cylinder.getBounds();
+        for (int x = (int) Math.floor(bounds.getMinX()) - 1; x <= bounds.getMaxX(); x++) {
+            for (int y = (int) Math.floor(bounds.getMinY()) - 1; y <= bounds.getMaxY(); y++) {
+                for (int z = (int) Math.floor(bounds.getMinZ()) - 1; z <= bounds.getMaxZ(); z++) {
+                    if (cylinder.contains(x + 0.5, y + 0.5, z + 0.5)) {
+                        expected.add(BlockKeys.of(x, y, z));
+                    }
+                }
+            }
+        }
+
+        Set<Long> visited = new HashSet<>();
+        cylinder.forEachBlock((x, y, z) -> Assert.assertTrue("visited twice", visited.add(BlockKeys.of(x, y, z))));
+        Assert.assertEquals(expected, visited);
+
+        Set<Long> iterated = new HashSet<>();
+        for (BlockVector bv : cylinder) {
+            Assert.assertTrue("iterated twice", iterated.add(BlockKeys.of(bv.getBlockX(), bv.getBlockY(), bv.getBlockZ())));
+        }
+        Assert.assertEquals(expected, iterated);
+        return expected;
+    }
+}
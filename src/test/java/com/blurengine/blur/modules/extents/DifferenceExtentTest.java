@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.modules.extents.IntersectionExtentTest.AboveExtent;
+import com.blurengine.blur.utils.BlockKeys;
+import com.supaham.commons.bukkit.utils.ImmutableVector;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class DifferenceExtentTest {
+
+    private static final CuboidExtent CUBOID = new CuboidExtent(new Vector(-6, 0, -6), new Vector(6, 8, 6));
+    private static final CylinderExtent CYLINDER = new CylinderExtent(new ImmutableVector(2.5, 2, 0.5), 5.5, 9);
+
+    @Test
+    public void testOverlapping() throws Exception {
+        assertMatchesBruteForce(new DifferenceExtent(CUBOID, CYLINDER));
+        assertMatchesBruteForce(new DifferenceExtent(CYLINDER, CUBOID, new CuboidExtent(new Vector(6, 0, -5), new Vector(9, 20, 5))));
+    }
+
+    @Test
+    public void testDisjoint() throws Exception {
+        DifferenceExtent difference = new DifferenceExtent(CUBOID, new CuboidExtent(new Vector(10, 0, 0), new Vector(12, 3, 2)));
+        Assert.assertEquals(CUBOID.getBounds(), difference.getBounds());
+        Assert.assertEquals(blocks(CUBOID), assertMatchesBruteForce(difference));
+    }
+
+    @Test
+    public void testNested() throws Exception {
+        CuboidExtent inner = new CuboidExtent(new Vector(-2, 1, -1), new Vector(1, 3, 2));
+        Set<Long> expected = blocks(CUBOID);
+        expected.removeAll(blocks(inner));
+        Assert.assertEquals(expected, assertMatchesBruteForce(new DifferenceExtent(CUBOID, inner)));
+        Assert.assertTrue(assertMatchesBruteForce(new DifferenceExtent(inner, CUBOID)).isEmpty());
+    }
+
+    @Test
+    public void testInfiniteSubtracted() throws Exception {
+        DifferenceExtent difference = new DifferenceExtent(CYLINDER, new AboveExtent(5));
+        Assert.assertEquals(CYLINDER.getBounds(), difference.getBounds());
+        assertMatchesBruteForce(difference);
+    }
+
+    @Test
+    public void testMutableChildren() throws Exception {
+        // Bounds of mutable children may change, so neither the base nor the subtracted extent have fixed bounds.
+        TransformedExtent movingBase = new TransformedExtent(CUBOID, 0, 0, 0, 0);
+        TransformedExtent movingHole = new TransformedExtent(CYLINDER, 0, 0, 0, 0);
+        DifferenceExtent difference = new DifferenceExtent(movingBase, movingHole);
+        Assert.assertNull(difference.bounds);
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            movingBase.setTransform(random.nextDouble() * 6 - 3, random.nextDouble() * 4 - 2, random.nextDouble() * 6 - 3, random.nextDouble() * 360);
+            movingHole.setTransform(random.nextDouble() * 12 - 6, random.nextDouble() * 4 - 2, random.nextDouble() * 12 - 6,
+                random.nextDouble() * 360);
+            assertMatchesBruteForce(difference);
+        }
+    }
+
+    private static Set<Long> blocks(Extent extent) {
+        Set<Long> blocks = new HashSet<>();
+        extent.forEachBlock((x, y, z) -> blocks.add(BlockKeys.of(x, y, z)));
+        return blocks;
+    }
+
+    private static boolean bruteForceContains(DifferenceExtent difference, double x, double y, double z) {
+        if (!difference.getBase().contains(x, y, z)) {
+            return false;
+        }
+        for (Extent subtracted : difference.getSubtracted()) {
+            if (subtracted.contains(x, y, z)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Long> assertMatchesBruteForce(DifferenceExtent difference) {
+        ExtentBounds bounds = difference.getBounds();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(1);
+        for (int x = (int) Math.floor(bounds.getMinX()) - 1; x <= bounds.getMaxX(); x++) {
+            for (int y = (int) Math.floor(bounds.getMinY()) - 1; y <= bounds.getMaxY(); y++) {
+                for (int z = (int) Math.floor(bounds.getMinZ()) - 1; z <= bounds.getMaxZ(); z++) {
+                    boolean contained = bruteForceContains(difference, x + 0.5, y + 0.5, z + 0.5);
+                    Assert.assertEquals(x + "," + y + "," + z, contained, difference.contains(x + 0.5, y + 0.5, z + 0.5));
+                    if (contained) {
+                        expected.add(BlockKeys.of(x, y, z));
+                    }
+                    double rX = x + random.nextDouble(), rY = y + random.nextDouble(), rZ = z + random.nextDouble();
+                    Assert.assertEquals(bruteForceContains(difference, rX, rY, rZ), difference.contains(rX, rY, rZ));
+                }
+            }
+        }
+
+        Set<Long> visited = new HashSet<>();
+        difference.forEachBlock((x, y, z) -> Assert.assertTrue("visited twice", visited.add(BlockKeys.of(x, y, z))));
+        Assert.assertEquals(expected, visited);
+
+        Set<Long> iterated = new HashSet<>();
+        for (BlockVector bv : difference) {
+            Assert.assertTrue("iterated twice", iterated.add(BlockKeys.of(bv.getBlockX(), bv.getBlockY(), bv.getBlockZ())));
+        }
+        Assert.assertEquals(expected, iterated);
+        return expected;
+    }
+}
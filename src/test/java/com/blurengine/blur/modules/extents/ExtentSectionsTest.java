@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+import com.blurengine.blur.utils.IntTriConsumer;
+
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ExtentSectionsTest {
+
+    private static PolygonExtent diamond(double x, double z, double radius, double minY, double maxY) {
+        return new PolygonExtent(Arrays.asList(new Vector(x - radius, 0, z), new Vector(x, 0, z - radius), new Vector(x + radius, 0, z),
+            new Vector(x, 0, z + radius)), minY, maxY);
+    }
+
+    private static Set<Long> blocks(Extent extent) {
+        Set<Long> blocks = new HashSet<>();
+        extent.forEachBlock((x, y, z) -> blocks.add(BlockKeys.of(x, y, z)));
+        return blocks;
+    }
+
+    /*
+     * Checks that every expected block is visited exactly once, that the blocks of a section are visited together in y, z, x order, and that each
+     * block lies in the section announced last.
+     */
+    private static void assertSectioned(Set<Long> expected, SectionVisitor visitor) {
+        Set<Long> visited = new HashSet<>();
+        Set<Long> sections = new HashSet<>();
+        int[] section = new int[3];
+        int[] last = new int[3];
+        boolean[] first = {true};
+        visitor.visit((x, y, z) -> {
+            Assert.assertTrue("Visited twice " + x + "," + y + "," + z, visited.add(BlockKeys.of(x, y, z)));
+            Assert.assertArrayEquals(x + "," + y + "," + z, section, new int[]{x >> 4, y >> 4, z >> 4});
+            if (!first[0]) {
+                int order = y != last[1] ? Integer.compare(y, last[1]) : z != last[2] ? Integer.compare(z, last[2]) : Integer.compare(x, last[0]);
+                Assert.assertTrue("Out of order " + x + "," + y + "," + z, order > 0);
+            }
+            first[0] = false;
+            last[0] = x;
+            last[1] = y;
+            last[2] = z;
+        }, (x, y, z) -> {
+            Assert.assertTrue("Section visited again " + x + "," + y + "," + z, sections.add(BlockKeys.of(x, y, z)));
+            section[0] = x;
+            section[1] = y;
+            section[2] = z;
+            first[0] = true;
+        });
+        Assert.assertEquals(expected, visited);
+    }
+
+    private static void assertSectioned(Extent extent) {
+        assertSectioned(blocks(extent), (action, sectionAction) -> ExtentSections.forEachBlockBySection(extent, action, sectionAction));
+    }
+
+    @Test
+    public void testAroundOrigin() throws Exception {
+        // Spans negative and positive sections on every axis.
+        assertSectioned(diamond(0.5, -0.5, 37, -40, 40));
+        assertSectioned(diamond(-7.25, 9.75, 20.5, -3, 18));
+    }
+
+    @Test
+    public void testFarCoordinates() throws Exception {
+        // Close to the limits of the sort key, 22 bits of section x and z and 8 bits of section y.
+        int far = (1 << 25) - 40;
+        assertSectioned(diamond(far, far, 30, 2000, 2047));
+        assertSectioned(diamond(-far, -far, 30, -2048, -2000));
+        assertSectioned(diamond(far, -far, 30, -2048, -2030));
+        assertSectioned(diamond(-far, far, 30, 2030, 2047));
+    }
+
+    @Test
+    public void testSortKey() throws Exception {
+        // Positive section x sets the sign bit, yet sorting still keeps each section contiguous.
+        Assert.assertTrue(ExtentSections.sortKey(16, 0, 0) < 0);
+        Assert.assertTrue(ExtentSections.sortKey(-1, 0, 0) > 0);
+        Assert.assertTrue(ExtentSections.sortKey(0, 0, 0) != ExtentSections.sortKey(0, 0, -16));
+        Assert.assertTrue(ExtentSections.sortKey(0, 15, 0) < ExtentSections.sortKey(0, 16, 0));
+        Assert.assertTrue(ExtentSections.sortKey(15, 0, 15) < ExtentSections.sortKey(0, 1, 0));
+    }
+
+    @Test
+    public void testBox() throws Exception {
+        Set<Long> expected = new HashSet<>();
+        for (int x = -20; x <= 17; x++) {
+            for (int y = -5; y <= 33; y++) {
+                for (int z = -1; z <= 16; z++) {
+                    expected.add(BlockKeys.of(x, y, z));
+                }
+            }
+        }
+        assertSectioned(expected, (action, sectionAction) -> ExtentSections.forEachBlockBySection(-20, -5, -1, 17, 33, 16, action, sectionAction));
+    }
+
+    private interface SectionVisitor {
+
+        void visit(IntTriConsumer action, IntTriConsumer sectionAction);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+import com.supaham.commons.bukkit.utils.ImmutableVector;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class IntersectionExtentTest {
+
+    private static final CuboidExtent CUBOID = new CuboidExtent(new Vector(-6, 0, -6), new Vector(6, 8, 6));
+    private static final CylinderExtent CYLINDER = new CylinderExtent(new ImmutableVector(2.5, 2, 0.5), 5.5, 9);
+    private static final PolygonExtent TRIANGLE = new PolygonExtent(Arrays.asList(new Vector(-9, 0, -9), new Vector(9.5, 0, -3),
+        new Vector(-2, 0, 10.25)), -3, 5.5);
+
+    @Test
+    public void testOverlapping() throws Exception {
+        assertMatchesBruteForce(new IntersectionExtent(CUBOID, CYLINDER));
+        assertMatchesBruteForce(new IntersectionExtent(TRIANGLE, CYLINDER, CUBOID));
+    }
+
+    @Test
+    public void testDisjoint() throws Exception {
+        IntersectionExtent intersection = new IntersectionExtent(CUBOID, new CuboidExtent(new Vector(10, 0, 0), new Vector(12, 3, 2)));
+        Assert.assertTrue(intersection.getBounds().isEmpty());
+        Assert.assertEquals(0, intersection.getVolume(), 0);
+        Assert.assertTrue(assertMatchesBruteForce(intersection).isEmpty());
+    }
+
+    @Test
+    public void testNested() throws Exception {
+        CuboidExtent inner = new CuboidExtent(new Vector(-2, 1, -1), new Vector(1, 3, 2));
+        IntersectionExtent intersection = new IntersectionExtent(CUBOID, inner);
+        Assert.assertEquals(inner.getBounds(), intersection.getBounds());
+        Assert.assertEquals(blocks(inner), assertMatchesBruteForce(intersection));
+    }
+
+    @Test
+    public void testInfiniteChild() throws Exception {
+        // An infinite child has INFINITE bounds, and is never the child iterated.
+        IntersectionExtent intersection = new IntersectionExtent(new AboveExtent(3), CYLINDER);
+        Assert.assertEquals(CYLINDER.getBounds(), intersection.getBounds());
+        assertMatchesBruteForce(intersection);
+    }
+
+    @Test
+    public void testMutableChild() throws Exception {
+        // Bounds of a mutable child may change, so the intersection has no fixed bounds.
+        TransformedExtent moving = new TransformedExtent(TRIANGLE, 0, 0, 0, 0);
+        IntersectionExtent intersection = new IntersectionExtent(CUBOID, moving);
+        Assert.assertNull(intersection.bounds);
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            moving.setTransform(random.nextDouble() * 16 - 8, random.nextDouble() * 6 - 3, random.nextDouble() * 16 - 8, random.nextDouble() * 360);
+            assertMatchesBruteForce(intersection);
+        }
+        moving.setTranslation(100, 0, 0);
+        Assert.assertTrue(assertMatchesBruteForce(intersection).isEmpty());
+    }
+
+    private static Set<Long> blocks(Extent extent) {
+        Set<Long> blocks = new HashSet<>();
+        extent.forEachBlock((x, y, z) -> blocks.add(BlockKeys.of(x, y, z)));
+        return blocks;
+    }
+
+    private static boolean bruteForceContains(List<Extent> children, double x, double y, double z) {
+        for (Extent child : children) {
+            if (!child.contains(x, y, z)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Long> assertMatchesBruteForce(IntersectionExtent intersection) {
+        List<Extent> children = new ArrayList<>(intersection.getExtents());
+        ExtentBounds region = ExtentBounds.EMPTY;
+        for (Extent child : children) {
+            if (!child.isInfinite()) {
+                region = region.union(child.getBounds());
+            }
+        }
+        ExtentBounds bounds = intersection.getBounds();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(1);
+        for (int x = (int) Math.floor(region.getMinX()) - 1; x <= region.getMaxX(); x++) {
+            for (int y = (int) Math.floor(region.getMinY()) - 1; y <= region.getMaxY(); y++) {
+                for (int z = (int) Math.floor(region.getMinZ()) - 1; z <= region.getMaxZ(); z++) {
+                    boolean contained = bruteForceContains(children, x + 0.5, y + 0.5, z + 0.5);
+                    Assert.assertEquals(x + "," + y + "," + z, contained, intersection.contains(x + 0.5, y + 0.5, z + 0.5));
+                    if (contained) {
+                        Assert.assertTrue(bounds.contains(x + 0.5, y + 0.5, z + 0.5));
+                        expected.add(BlockKeys.of(x, y, z));
+                    }
+                    double rX = x + random.nextDouble(), rY = y + random.nextDouble(), rZ = z + random.nextDouble();
+                    Assert.assertEquals(bruteForceContains(children, rX, rY, rZ), intersection.contains(rX, rY, rZ));
+                }
+            }
+        }
+
+        Set<Long> visited = new HashSet<>();
+        intersection.forEachBlock((x, y, z) -> Assert.assertTrue("visited twice", visited.add(BlockKeys.of(x, y, z))));
+        Assert.assertEquals(expected, visited);
+
+        Set<Long> iterated = new HashSet<>();
+        for (BlockVector bv : intersection) {
+            Assert.assertTrue("iterated twice", iterated.add(BlockKeys.of(bv.getBlockX(), bv.getBlockY(), bv.getBlockZ())));
+        }
+        Assert.assertEquals(expected, iterated);
+        return expected;
+    }
+
+    // Infinite extent of everything at or above a height.
+    static final class AboveExtent implements Extent {
+
+        private final double minY;
+
+        AboveExtent(double minY) {
+            this.minY = minY;
+        }
+
+        @Override
+        public boolean contains(double x, double y, double z) {
+            return y >= minY;
+        }
+
+        @Override
+        public double getVolume() {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public Vector getRandomLocation(Random random) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<BlockVector> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
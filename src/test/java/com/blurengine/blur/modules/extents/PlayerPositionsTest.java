@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.session.BlurPlayer;
+
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class PlayerPositionsTest {
+
+    private static List<BlurPlayer> players(int count) {
+        List<BlurPlayer> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BlurPlayer blurPlayer = Mockito.mock(BlurPlayer.class);
+            Mockito.when(blurPlayer.getReusableLocation()).thenReturn(new Location(null, i, i + 0.5, -i));
+            players.add(blurPlayer);
+        }
+        return players;
+    }
+
+    private static void assertSnapshot(List<BlurPlayer> expected, PlayerPositions positions) {
+        Assert.assertEquals(expected.size(), positions.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertSame(expected.get(i), positions.getPlayer(i));
+            Location location = expected.get(i).getReusableLocation();
+            Assert.assertEquals(location.getX(), positions.getXs()[i], 0);
+            Assert.assertEquals(location.getY(), positions.getYs()[i], 0);
+            Assert.assertEquals(location.getZ(), positions.getZs()[i], 0);
+        }
+    }
+
+    @Test
+    public void testGrowShrinkRegrow() throws Exception {
+        PlayerPositions positions = new PlayerPositions();
+        List<BlurPlayer> all = players(5);
+
+        positions.update(all.subList(0, 1));
+        assertSnapshot(all.subList(0, 1), positions);
+        positions.update(all);
+        assertSnapshot(all, positions);
+        positions.update(all.subList(0, 2));
+        assertSnapshot(all.subList(0, 2), positions);
+        positions.update(all.subList(1, 4));
+        assertSnapshot(all.subList(1, 4), positions);
+        positions.update(Collections.emptyList());
+        Assert.assertEquals(0, positions.size());
+    }
+
+    // A collection reporting a different size than it yields, as a WeakHashMap's keys do when entries are collected mid update.
+    private static Collection<BlurPlayer> misreporting(List<BlurPlayer> players, int reportedSize) {
+        return new AbstractCollection<BlurPlayer>() {
+            @Override
+            public Iterator<BlurPlayer> iterator() {
+                return players.iterator();
+            }
+
+            @Override
+            public int size() {
+                return reportedSize;
+            }
+        };
+    }
+
+    @Test
+    public void testMisreportedSize() throws Exception {
+        PlayerPositions positions = new PlayerPositions();
+        List<BlurPlayer> all = players(6);
+
+        positions.update(misreporting(all.subList(0, 2), 4));
+        assertSnapshot(all.subList(0, 2), positions);
+        positions.update(all);
+        positions.update(misreporting(all.subList(1, 4), 6));
+        assertSnapshot(all.subList(1, 4), positions);
+        positions.update(misreporting(all, 3));
+        assertSnapshot(all, positions);
+    }
+
+    @Test
+    public void testContainsAll() throws Exception {
+        PlayerPositions positions = new PlayerPositions().update(players(4));
+        // Contains the players at x 0 and 1 only.
+        Extent extent = new CuboidExtent(new Vector(0, 0, -5), new Vector(1, 5, 0));
+        BitSet out = new BitSet();
+        extent.containsAll(positions, out);
+        Assert.assertTrue(out.get(0));
+        Assert.assertTrue(out.get(1));
+        Assert.assertFalse(out.get(2));
+        Assert.assertFalse(out.get(3));
+    }
+}
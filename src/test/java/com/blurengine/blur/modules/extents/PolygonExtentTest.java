@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class PolygonExtentTest {
+
+    private static final double MIN_Y = 10, MAX_Y = 12.5;
+
+    private static List<Vector> points(double... xz) {
+        List<Vector> points = new ArrayList<>();
+        for (int i = 0; i < xz.length; i += 2) {
+            points.add(new Vector(xz[i], 0, xz[i + 1]));
+        }
+        return points;
+    }
+
+    /*
+     * Even-odd rule over every edge, counting the edges crossing z at or to the left of x. Edges span z half-open, from their lower z, and their x
+     * is computed from their lower vertex like PolygonExtent does, so that points on edges are judged the same way.
+     */
+    private static boolean bruteForceContains(List<Vector> points, double x, double y, double z) {
+        if (y < MIN_Y || y >= MAX_Y) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = points.size() - 1; i < points.size(); j = i++) {
+            Vector a = points.get(i), b = points.get(j);
+            Vector low = a.getZ() < b.getZ() ? a : b, high = low == a ? b : a;
+            if (low.getZ() <= z && z < high.getZ()) {
+                double slope = (high.getX() - low.getX()) / (high.getZ() - low.getZ());
+                if (low.getX() + slope * (z - low.getZ()) <= x) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    private static void assertMatchesBruteForce(List<Vector> points, Random random) {
+        PolygonExtent polygon = new PolygonExtent(points, MIN_Y, MAX_Y);
+        ExtentBounds bounds = polygon.getBounds();
+        int fromX = (int) Math.floor(bounds.getMinX()) - 1, toX = (int) Math.ceil(bounds.getMaxX()) + 1;
+        int fromZ = (int) Math.floor(bounds.getMinZ()) - 1, toZ = (int) Math.ceil(bounds.getMaxZ()) + 1;
+
+        // Random points, points on vertices and points on the grid lines the vertices and block centres lie on.
+        List<double[]> tests = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            tests.add(new double[]{fromX + random.nextDouble() * (toX - fromX), MIN_Y + random.nextDouble() * 2 - 0.5,
+                fromZ + random.nextDouble() * (toZ - fromZ)});
+        }
+        for (Vector a : points) {
+            for (Vector b : points) {
+                tests.add(new double[]{a.getX(), MIN_Y, b.getZ()});
+            }
+        }
+        for (int x = fromX; x <= toX; x++) {
+            for (int z = fromZ; z <= toZ; z++) {
+                tests.add(new double[]{x, MIN_Y, z});
+                tests.add(new double[]{x + 0.5, MIN_Y, z + 0.5});
+            }
+        }
+        for (double[] test : tests) {
+            Assert.assertEquals(points + " at " + Arrays.toString(test), bruteForceContains(points, test[0], test[1], test[2]),
+                polygon.contains(test[0], test[1], test[2]));
+        }
+
+        Set<Long> expected = new HashSet<>();
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = (int) MIN_Y - 1; y <= MAX_Y; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    if (bruteForceContains(points, x + 0.5, y + 0.5, z + 0.5)) {
+                        expected.add(BlockKeys.of(x, y, z));
+                    }
+                }
+            }
+        }
+        Set<Long> actual = new HashSet<>();
+        polygon.forEachBlock((x, y, z) -> Assert.assertTrue("Visited twice " + x + "," + y + "," + z, actual.add(BlockKeys.of(x, y, z))));
+        Assert.assertEquals(points.toString(), expected, actual);
+    }
+
+    @Test
+    public void testConvex() throws Exception {
+        Random random = new Random(1);
+        assertMatchesBruteForce(points(0, 0, 8, 0, 8, 8, 0, 8), random);
+        assertMatchesBruteForce(points(0.5, -3.25, 6.75, 0.5, 5, 7.5, -2.3, 9.1, -6, 2), random);
+        assertMatchesBruteForce(points(-10, -10, 10, -10, 0, 7), random);
+    }
+
+    @Test
+    public void testConcave() throws Exception {
+        Random random = new Random(2);
+        // L shape, U shape and an arrow head.
+        assertMatchesBruteForce(points(0, 0, 10, 0, 10, 3, 3, 3, 3, 10, 0, 10), random);
+        assertMatchesBruteForce(points(0, 0, 9, 0, 9, 9, 6, 9, 6, 3, 3, 3, 3, 9, 0, 9), random);
+        assertMatchesBruteForce(points(0, 0, 12.5, 6.25, 0, 12.5, 4.5, 6.25), random);
+    }
+
+    @Test
+    public void testSelfIntersecting() throws Exception {
+        Random random = new Random(3);
+        // Bowtie and pentagram, whose edges cross within slabs.
+        assertMatchesBruteForce(points(0, 0, 10, 10, 10, 0, 0, 10), random);
+        List<Vector> star = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            double angle = Math.PI / 2 + i * 4 * Math.PI / 5;
+            star.add(new Vector(10 * Math.cos(angle), 0, 10 * Math.sin(angle)));
+        }
+        assertMatchesBruteForce(star, random);
+    }
+
+    @Test
+    public void testRandomPolygons() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            // Random vertex order makes most of these self-intersecting, half snap to half blocks to share z coordinates.
+            int n = 3 + random.nextInt(8);
+            double[] xz = new double[n * 2];
+            for (int k = 0; k < xz.length; k++) {
+                xz[k] = random.nextDouble() * 30 - 15;
+                if (i % 2 == 0) {
+                    xz[k] = Math.round(xz[k] * 2) / 2d;
+                }
+            }
+            assertMatchesBruteForce(points(xz), random);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.modules.extents;
+
+import com.blurengine.blur.utils.BlockKeys;
+import com.supaham.commons.bukkit.utils.ImmutableVector;
+
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TransformedExtentTest {
+
+    private static final double[] QUARTER_TURNS = {0, 90, 180, 270, -90, 450};
+    private static final double[] YAWS = {15, 33.3, 45, 89.9, 135, 200.5, -71};
+    private static final double[][] TRANSLATIONS = {{0, 0, 0}, {3, -2, 5}, {0.5, 0.5, -0.5}, {0.3, 0.7, -4.25}, {-7.8, 2.5, 1.1}};
+
+    private static List<Extent> shapes() {
+        return Arrays.asList(
+            new CuboidExtent(new Vector(-3, 10, 2), new Vector(4, 12, 6)),
+            // L shaped, with fractional edges and heights.
+            new PolygonExtent(Arrays.asList(new Vector(0, 0, 0), new Vector(9.5, 0, 0), new Vector(9.5, 0, 3), new Vector(3, 0, 3),
+                new Vector(3, 0, 8.25), new Vector(0, 0, 8.25)), 5, 7.5),
+            new CylinderExtent(new ImmutableVector(-4.5, 0, 7.25), 3.6, 2));
+    }
+
+    private static List<Vector> pivots() {
+        // Null stands for the default pivot.
+        return Arrays.asList(null, new Vector(0.5, 0, 0.5), new Vector(3, 0, -2.25), new Vector(-11.7, 0, 4.4));
+    }
+
+    private static TransformedExtent transform(Extent extent, Vector pivot, double[] translation, double yaw) {
+        return pivot == null ? new TransformedExtent(extent, translation[0], translation[1], translation[2], yaw)
+            : new TransformedExtent(extent, pivot, translation[0], translation[1], translation[2], yaw);
+    }
+
+    @Test
+    public void testQuarterTurns() throws Exception {
+        for (Extent shape : shapes()) {
+            for (Vector pivot : pivots()) {
+                for (double[] translation : TRANSLATIONS) {
+                    for (double yaw : QUARTER_TURNS) {
+                        Set<Long> blocks = assertBlocksMatchBruteForce(transform(shape, pivot, translation, yaw));
+                        // Whole block translations around a block centre keep the block grid, and so the number of blocks.
+                        boolean whole = translation[0] % 1 == 0 && translation[1] % 1 == 0 && translation[2] % 1 == 0;
+                        if (whole && (pivot == null || (pivot.getX() % 1 == 0.5 && pivot.getZ() % 1 == 0.5))) {
+                            Assert.assertEquals(blocks(shape).size(), blocks.size());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testArbitraryYaws() throws Exception {
+        for (Extent shape : shapes()) {
+            for (Vector pivot : pivots()) {
+                for (double[] translation : TRANSLATIONS) {
+                    for (double yaw : YAWS) {
+                        assertBlocksMatchBruteForce(transform(shape, pivot, translation, yaw));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFractionalTranslateY() throws Exception {
+        // The block centre at y 11.5 maps back to 10.8, within the single block at y 10.
+        CuboidExtent block = new CuboidExtent(new Vector(0, 10, 0), new Vector(0, 10, 0));
+        for (double yaw : new double[]{0, 89.9, 90}) {
+            TransformedExtent transformed = new TransformedExtent(block, new Vector(0.5, 0, 0.5), 0, 0.7, 0, yaw);
+            Set<Long> blocks = assertBlocksMatchBruteForce(transformed);
+            Assert.assertEquals(Collections.singleton(BlockKeys.of(0, 11, 0)), blocks);
+        }
+    }
+
+    @Test
+    public void testMovingTransform() throws Exception {
+        // A single instance updated every tick, as moving platforms do.
+        Random random = new Random(7);
+        TransformedExtent transformed = new TransformedExtent(shapes().get(1), new Vector(4.5, 0, 4.5), 0, 0, 0, 0);
+        for (int tick = 0; tick < 200; tick++) {
+            double yaw = tick % 4 == 0 ? 90 * random.nextInt(4) : random.nextDouble() * 360;
+            transformed.setTransform(random.nextDouble() * 20 - 10, random.nextDouble() * 4 - 2, random.nextDouble() * 20 - 10, yaw);
+            assertBlocksMatchBruteForce(transformed);
+        }
+    }
+
+    @Test
+    public void testInverse() throws Exception {
+        // Block centres of the wrapped extent, moved forward by the transform, must be contained and within the bounds.
+        CuboidExtent cuboid = new CuboidExtent(new Vector(-3, 10, 2), new Vector(4, 12, 6));
+        Vector pivot = new Vector(1.3, 0, -0.6);
+        for (double yaw : new double[]{0, 30, 90, 144.4, 180, 270, 333}) {
+            TransformedExtent transformed = new TransformedExtent(cuboid, pivot, 2.2, -1.4, 0.9, yaw);
+            double radians = Math.toRadians(yaw);
+            double cos = Math.cos(radians), sin = Math.sin(radians);
+            cuboid.forEachBlock((x, y, z) -> {
+                double dX = x + 0.5 - pivot.getX(), dZ = z + 0.5 - pivot.getZ();
+                double tX = cos * dX - sin * dZ + pivot.getX() + 2.2, tY = y + 0.5 - 1.4, tZ = sin * dX + cos * dZ + pivot.getZ() + 0.9;
+                Assert.assertTrue(yaw + " " + x + "," + y + "," + z, transformed.contains(tX, tY, tZ));
+                Assert.assertTrue(yaw + " " + x + "," + y + "," + z, transformed.getBounds().contains(tX, tY, tZ));
+            });
+        }
+    }
+
+    private static Set<Long> blocks(Extent extent) {
+        Set<Long> blocks = new HashSet<>();
+        extent.forEachBlock((x, y, z) -> blocks.add(BlockKeys.of(x, y, z)));
+        return blocks;
+    }
+
+    private static Set<Long> assertBlocksMatchBruteForce(TransformedExtent extent) {
+        String name = extent.getExtent().getClass().getSimpleName() + " at " + extent.getTranslateX() + "," + extent.getTranslateY() + ","
+            + extent.getTranslateZ() + " yaw " + extent.getYaw();
+        Set<Long> expected = new HashSet<>();
+        ExtentBounds bounds = extent.getBounds();
+        for (int x = (int) Math.floor(bounds.getMinX()) - 1; x <= bounds.getMaxX(); x++) {
+            for (int y = (int) Math.floor(bounds.getMinY()) - 1; y <= bounds.getMaxY(); y++) {
+                for (int z = (int) Math.floor(bounds.getMinZ()) - 1; z <= bounds.getMaxZ(); z++) {
+                    if (extent.contains(x + 0.5, y + 0.5, z + 0.5)) {
+                        expected.add(BlockKeys.of(x, y, z));
+                    }
+                }
+            }
+        }
+
+        Set<Long> visited = new HashSet<>();
+        extent.forEachBlock((x, y, z) -> Assert.assertTrue(name + " visited twice", visited.add(BlockKeys.of(x, y, z))));
+        Assert.assertEquals(name, expected, visited);
+
+        Set<Long> iterated = new HashSet<>();
+        for (BlockVector bv : extent) {
+            Assert.assertTrue(name + " iterated twice", iterated.add(BlockKeys.of(bv.getBlockX(), bv.getBlockY(), bv.getBlockZ())));
+        }
+        Assert.assertEquals(name, expected, iterated);
+        return expected;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockKeysTest {
+
+    private static void assertRoundTrip(int x, int y, int z) {
+        long key = BlockKeys.of(x, y, z);
+        Assert.assertEquals(x, BlockKeys.getX(key));
+        Assert.assertEquals(y, BlockKeys.getY(key));
+        Assert.assertEquals(z, BlockKeys.getZ(key));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        assertRoundTrip(0, 0, 0);
+        assertRoundTrip(-1, -1, -1);
+        assertRoundTrip(123, 64, -456);
+        assertRoundTrip(30_000_000, 255, -30_000_000);
+        assertRoundTrip(-30_000_000, 0, 30_000_000);
+    }
+
+    @Test
+    public void testDistinctNeighbours() throws Exception {
+        long key = BlockKeys.of(10, 64, 10);
+        Assert.assertNotEquals(key, BlockKeys.of(11, 64, 10));
+        Assert.assertNotEquals(key, BlockKeys.of(10, 65, 10));
+        Assert.assertNotEquals(key, BlockKeys.of(10, 64, 11));
+        Assert.assertNotEquals(key, BlockKeys.of(-10, 64, 10));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testAddContainsRemove() throws Exception {
+        LongHashSet set = new LongHashSet();
+        Assert.assertTrue(set.add(0));
+        Assert.assertTrue(set.add(BlockKeys.of(-1, 64, 1)));
+        Assert.assertFalse(set.add(0));
+        Assert.assertTrue(set.contains(0));
+        Assert.assertTrue(set.contains(BlockKeys.of(-1, 64, 1)));
+        Assert.assertFalse(set.contains(BlockKeys.of(1, 64, -1)));
+        Assert.assertEquals(2, set.size());
+
+        Assert.assertTrue(set.remove(0));
+        Assert.assertFalse(set.contains(0));
+        Assert.assertFalse(set.remove(0));
+        Assert.assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testMatchesHashSet() throws Exception {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Small key range to force collisions, growth and removals within clusters.
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(key), set.add(key));
+            } else {
+                Assert.assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+        Assert.assertEquals(expected.size(), set.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            Assert.assertEquals(expected.contains(key), set.contains(key));
+        }
+
+        Set<Long> iterated = new HashSet<>();
+        PrimitiveIterator.OfLong it = set.iterator();
+        while (it.hasNext()) {
+            Assert.assertTrue(iterated.add(it.nextLong()));
+        }
+        Assert.assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        LongHashSet set = new LongHashSet();
+        set.add(0);
+        set.add(5);
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(0));
+        Assert.assertFalse(set.contains(5));
+        Assert.assertFalse(set.iterator().hasNext());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Ali Moghnieh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blurengine.blur.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Assert.assertNull(map.put(0, "zero"));
+        Assert.assertNull(map.put(BlockKeys.of(-1, 64, 1), "a"));
+        Assert.assertEquals("zero", map.put(0, "ZERO"));
+        Assert.assertEquals("ZERO", map.get(0));
+        Assert.assertEquals("a", map.get(BlockKeys.of(-1, 64, 1)));
+        Assert.assertNull(map.get(BlockKeys.of(1, 64, -1)));
+        Assert.assertEquals(2, map.size());
+
+        Assert.assertEquals("ZERO", map.remove(0));
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertNull(map.remove(0));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testMatchesHashMap() throws Exception {
+        Random random = new Random(42);
+        LongObjectHashMap<Integer> map = new LongObjectHashMap<>(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Small key range to force collisions, growth and removals within clusters.
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+
+        Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach((value, key) -> Assert.assertNull(iterated.put(key, value)));
+        Assert.assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(0, "zero");
+        map.put(5, "five");
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(0));
+        Assert.assertNull(map.get(5));
+    }
+}